@@ -0,0 +1,25 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+/**
+ * One admin write as recorded in the audit log.
+ */
+@Value
+public class AuditEvent {
+
+    /**
+     * When the request arrived.
+     */
+    Instant time;
+    String principal;
+    String method;
+    String path;
+    /**
+     * Response status; 499 when the client went away first.
+     */
+    int status;
+    long durationMicros;
+}
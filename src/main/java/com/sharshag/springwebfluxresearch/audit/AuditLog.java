@@ -0,0 +1,172 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous append-only audit log. Request threads only {@link #record}
+ * into a lock-free ring buffer; a single writer thread drains it into the
+ * memory-mapped segments and forces them to disk at most once per sync
+ * interval, so one fsync covers every event written since the previous one.
+ * When the writer falls behind a full ring drops events and counts them
+ * rather than slowing requests down.
+ * <p>
+ * Meters: {@code audit.events} by result (written, dropped, failed),
+ * {@code audit.fsync} and {@code audit.ring.depth}.
+ */
+@Slf4j
+public class AuditLog implements SmartLifecycle {
+
+    private static final int DRAIN_LIMIT = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncIntervalNanos;
+    private final MpscRingBuffer<AuditEvent> ring;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer fsync;
+    private volatile boolean running;
+    private Thread writerThread;
+    private AuditLogWriter writer;
+
+    public AuditLog(Path directory, int segmentSize, int ringCapacity, Duration syncInterval,
+            MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.ring = new MpscRingBuffer<>(ringCapacity);
+        this.written = events(meterRegistry, "written");
+        this.dropped = events(meterRegistry, "dropped");
+        this.failed = events(meterRegistry, "failed");
+        this.fsync = Timer.builder("audit.fsync")
+            .description("Forcing the current audit segment to disk")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("audit.ring.depth", ring, MpscRingBuffer::size).register(meterRegistry);
+    }
+
+    private static Counter events(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("audit.events")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event without blocking.
+     *
+     * @return false when the ring was full and the event was dropped
+     */
+    public boolean record(AuditEvent event) {
+        if (ring.offer(event)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        try {
+            writer = new AuditLogWriter(directory, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the audit log in " + directory, e);
+        }
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void writeLoop() {
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        while (running || ring.size() > 0) {
+            int drained = ring.drain(this::append, DRAIN_LIMIT);
+            dirty |= drained > 0;
+            long now = System.nanoTime();
+            if (dirty && (now - lastSync >= syncIntervalNanos || !running)) {
+                sync();
+                lastSync = now;
+                dirty = false;
+            }
+            if (drained == 0 && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        if (dirty) {
+            sync();
+        }
+        // closed here rather than in stop(), so the segments are never unmapped under a write
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.error("could not close the audit log", e);
+        }
+    }
+
+    private void append(AuditEvent event) {
+        try {
+            writer.append(event);
+            written.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.error("could not write audit event {}", event, e);
+        }
+    }
+
+    private void sync() {
+        long started = System.nanoTime();
+        try {
+            writer.force();
+        } catch (RuntimeException e) {
+            log.error("could not force the audit log to disk", e);
+        }
+        fsync.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("audit writer still draining {} events, it closes the log when done", ring.size());
+        }
+        writerThread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stopped after the in-flight requests were drained, so their events are written too.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads audit segments in write order. Safe to use while the log is being
+ * written: a record becomes visible once its length is in place, and reading
+ * a segment stops at the first torn record.
+ */
+public final class AuditLogReader {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private AuditLogReader() {
+    }
+
+    public static Stream<AuditEvent> read(Path directory) throws IOException {
+        return segments(directory).stream()
+            .flatMap(segment -> {
+                try {
+                    return readSegment(segment).stream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    public static List<AuditEvent> readSegment(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<AuditEvent> events = new ArrayList<>();
+            AuditEvent event;
+            while ((event = AuditRecords.read(buffer)) != null) {
+                events.add(event);
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Segment files of the directory, oldest first.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> {
+                    String name = file.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    static Path segmentPath(Path directory, long index) {
+        // zero-padded so that name order is write order
+        return directory.resolve(String.format("%s%020d%s", PREFIX, index, SUFFIX));
+    }
+
+    static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,101 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line access to an audit directory, run next to or after the
+ * application:
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.sharshag.springwebfluxresearch.audit.AuditLogTool \
+ *     org.springframework.boot.loader.PropertiesLauncher read audit
+ * ... compact audit P365D
+ * </pre>
+ * {@code read} prints one tab-separated line per event. {@code compact} drops
+ * the events older than the retention from every segment but the newest,
+ * which the application may still be appending to, trims the zero padding,
+ * and deletes segments left empty.
+ */
+public final class AuditLogTool {
+
+    private AuditLogTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && "read".equals(args[0])) {
+            try (Stream<AuditEvent> events = AuditLogReader.read(Paths.get(args[1]))) {
+                events.forEach(event -> System.out.println(String.join("\t",
+                    event.getTime().toString(),
+                    event.getPrincipal(),
+                    event.getMethod(),
+                    event.getPath(),
+                    String.valueOf(event.getStatus()),
+                    String.valueOf(event.getDurationMicros()))));
+            }
+        } else if (args.length == 3 && "compact".equals(args[0])) {
+            Instant cutoff = Instant.now().minus(Duration.parse(args[2]));
+            int removed = compact(Paths.get(args[1]), cutoff);
+            System.out.println("removed " + removed + " events older than " + cutoff);
+        } else {
+            System.err.println("usage: AuditLogTool read <dir> | compact <dir> <retention, e.g. P365D>");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Rewrites every closed segment without the events before {@code cutoff}.
+     *
+     * @return how many events were removed
+     */
+    public static int compact(Path directory, Instant cutoff) throws IOException {
+        List<Path> segments = AuditLogReader.segments(directory);
+        int removed = 0;
+        for (Path segment : segments.subList(0, Math.max(0, segments.size() - 1))) {
+            List<AuditEvent> events = AuditLogReader.readSegment(segment);
+            List<AuditEvent> kept = events.stream()
+                .filter(event -> !event.getTime().isBefore(cutoff))
+                .collect(Collectors.toList());
+            removed += events.size() - kept.size();
+            if (kept.isEmpty()) {
+                Files.delete(segment);
+            } else if (kept.size() < events.size() || Files.size(segment) > size(kept)) {
+                rewrite(segment, kept);
+            }
+        }
+        return removed;
+    }
+
+    private static long size(List<AuditEvent> events) {
+        return events.stream()
+            .mapToLong(event -> AuditRecords.HEADER_BYTES + AuditRecords.encode(event).length)
+            .sum();
+    }
+
+    private static void rewrite(Path segment, List<AuditEvent> events) throws IOException {
+        Path compacted = segment.resolveSibling(segment.getFileName() + ".compacting");
+        try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (AuditEvent event : events) {
+                byte[] body = AuditRecords.encode(event);
+                ByteBuffer record = ByteBuffer.allocate(AuditRecords.HEADER_BYTES + body.length);
+                record.putInt(body.length).putInt(AuditRecords.crc(body)).put(body).flip();
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(compacted, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,99 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends records to memory-mapped segments of a fixed size, opening the next
+ * segment when a record does not fit. Not thread-safe: only the writer thread
+ * of {@link AuditLog} uses it. On opening, the newest segment is scanned to
+ * the end of its valid records and anything torn after them is zeroed.
+ */
+class AuditLogWriter implements Closeable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    AuditLogWriter(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        List<Path> segments = AuditLogReader.segments(directory);
+        if (segments.isEmpty()) {
+            open(0);
+        } else {
+            open(AuditLogReader.indexOf(segments.get(segments.size() - 1)));
+            recover();
+        }
+    }
+
+    void append(AuditEvent event) throws IOException {
+        byte[] body = AuditRecords.encode(event);
+        int size = AuditRecords.HEADER_BYTES + body.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Audit record of " + size + " bytes exceeds the segment size");
+        }
+        if (buffer.remaining() < size) {
+            rotate();
+        }
+        int start = buffer.position();
+        buffer.position(start + AuditRecords.HEADER_BYTES);
+        buffer.put(body);
+        buffer.putInt(start + 4, AuditRecords.crc(body));
+        // the length goes in last: until then readers see the end of the data
+        buffer.putInt(start, body.length);
+    }
+
+    /**
+     * Flushes the mapped pages of the current segment to disk.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    private void rotate() throws IOException {
+        force();
+        channel.close();
+        open(segmentIndex + 1);
+    }
+
+    private void open(long index) throws IOException {
+        segmentIndex = index;
+        channel = FileChannel.open(AuditLogReader.segmentPath(directory, index),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // mapping beyond the end grows the file; the new bytes read as zero
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+    }
+
+    private void recover() {
+        while (AuditRecords.read(buffer) != null) {
+            // skip the records already written
+        }
+        int end = buffer.position();
+        for (int i = end; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        buffer.position(end);
+    }
+
+    long getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Binary framing of audit records: {@code [int length][int crc32][body]} with a
+ * body of epoch micros, duration micros, status and the principal, method and
+ * path as length-prefixed UTF-8. Segments are zero-filled ahead of the writer,
+ * so a zero length marks the end of the data and a bad checksum a torn write.
+ */
+final class AuditRecords {
+
+    static final int HEADER_BYTES = 8;
+
+    private AuditRecords() {
+    }
+
+    static byte[] encode(AuditEvent event) {
+        byte[] principal = event.getPrincipal().getBytes(StandardCharsets.UTF_8);
+        byte[] method = event.getMethod().getBytes(StandardCharsets.UTF_8);
+        byte[] path = event.getPath().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(8 + 8 + 4 + 4 + principal.length + 4 + method.length + 4 + path.length);
+        Instant time = event.getTime();
+        body.putLong(time.getEpochSecond() * 1_000_000 + time.getNano() / 1_000);
+        body.putLong(event.getDurationMicros());
+        body.putInt(event.getStatus());
+        body.putInt(principal.length).put(principal);
+        body.putInt(method.length).put(method);
+        body.putInt(path.length).put(path);
+        return body.array();
+    }
+
+    static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads the record at the buffer's position and moves past it, or returns
+     * null and leaves the position alone at the end of the data or at a torn record.
+     */
+    static AuditEvent read(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        byte[] body = new byte[length];
+        buffer.position(start + HEADER_BYTES);
+        buffer.get(body);
+        if (crc(body) != buffer.getInt(start + 4)) {
+            buffer.position(start);
+            return null;
+        }
+        return decode(ByteBuffer.wrap(body));
+    }
+
+    private static AuditEvent decode(ByteBuffer body) {
+        long micros = body.getLong();
+        long durationMicros = body.getLong();
+        int status = body.getInt();
+        String principal = string(body);
+        String method = string(body);
+        String path = string(body);
+        Instant time = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000);
+        return new AuditEvent(time, principal, method, path, status, durationMicros);
+    }
+
+    private static String string(ByteBuffer body) {
+        byte[] bytes = new byte[body.getInt()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Records every write to /animes by an ADMIN once its response is complete.
+ * Runs after the security filter chain, which has already authenticated the
+ * caller; the request itself only pays for queueing the event.
+ */
+public class AuditWebFilter implements WebFilter {
+
+    private static final Set<HttpMethod> AUDITED = EnumSet.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH,
+        HttpMethod.DELETE);
+    private static final PathPattern ANIMES = PathPatternParser.defaultInstance.parse("/animes/**");
+    private static final String ADMIN = "ROLE_ADMIN";
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final AuditLog auditLog;
+
+    public AuditWebFilter(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!AUDITED.contains(request.getMethod()) || !ANIMES.matches(request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+        return admin()
+            .flatMap(principal -> principal.isPresent()
+                ? audited(exchange, chain, principal.get())
+                : chain.filter(exchange));
+    }
+
+    private Mono<Void> audited(ServerWebExchange exchange, WebFilterChain chain, String principal) {
+        Instant time = Instant.now();
+        long started = System.nanoTime();
+        int[] errorStatus = new int[1];
+        return chain.filter(exchange)
+            .doOnError(e -> errorStatus[0] = e instanceof ResponseStatusException
+                ? ((ResponseStatusException) e).getRawStatusCode()
+                : 500)
+            .doFinally(signal -> {
+                ServerHttpRequest request = exchange.getRequest();
+                auditLog.record(new AuditEvent(time,
+                    principal,
+                    request.getMethodValue(),
+                    request.getPath().value(),
+                    status(exchange, signal, errorStatus[0]),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started)));
+            });
+    }
+
+    private static int status(ServerWebExchange exchange, SignalType signal, int errorStatus) {
+        if (signal == SignalType.CANCEL) {
+            return CLIENT_CLOSED_REQUEST;
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return errorStatus;
+        }
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status != null ? status : 200;
+    }
+
+    private static Mono<Optional<String>> admin() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .filter(authentication -> authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(ADMIN::equals))
+            .map(Authentication::getName)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty());
+    }
+}
@@ -0,0 +1,40 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import com.sharshag.springwebfluxresearch.domain.Anime;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of animes by id used by {@code AnimeService}.
+ */
+public interface AnimeCache {
+
+    /**
+     * The cached anime, or the one emitted by {@code loader} which is then cached;
+     * an empty loader result is not cached.
+     */
+    Mono<Anime> get(int id, Supplier<Mono<Anime>> loader);
+
+    /**
+     * Drops the ids from this node and the shared tier and tells the other nodes to drop them too.
+     */
+    Mono<Void> evict(Collection<Integer> ids);
+
+    static AnimeCache none() {
+        return new AnimeCache() {
+
+            @Override
+            public Mono<Anime> get(int id, Supplier<Mono<Anime>> loader) {
+                return Mono.defer(loader);
+            }
+
+            @Override
+            public Mono<Void> evict(Collection<Integer> ids) {
+                return Mono.empty();
+            }
+        };
+    }
+}
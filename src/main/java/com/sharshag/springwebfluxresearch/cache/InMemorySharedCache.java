@@ -0,0 +1,52 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Embedded stand-in for Redis. Every cache built on the same instance shares it,
+ * which is how tests simulate several nodes in one JVM.
+ */
+public class InMemorySharedCache implements SharedCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<String> get(String key) {
+        return Mono.fromSupplier(() -> {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(key, entry);
+                return null;
+            }
+            return entry.value;
+        });
+    }
+
+    @Override
+    public Mono<Void> put(String key, String value, Duration ttl) {
+        return Mono.fromRunnable(() -> entries.put(key, new Entry(value, System.nanoTime() + ttl.toNanos())));
+    }
+
+    @Override
+    public Mono<Void> evict(String key) {
+        return Mono.fromRunnable(() -> entries.remove(key));
+    }
+
+    private static class Entry {
+
+        private final String value;
+        private final long expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.Value;
+
+/**
+ * Ids of one tenant evicted by one node, stamped with the publishing node and
+ * wall-clock time so receivers can measure how long peers served the old value.
+ */
+@Value
+public class Invalidation {
+
+    String origin;
+    String tenant;
+    long publishedAtMillis;
+    List<Integer> ids;
+
+    /**
+     * {@code origin|tenant|publishedAtMillis|id,id,...}, small enough for a NOTIFY payload.
+     */
+    public String encode() {
+        return origin + '|' + tenant + '|' + publishedAtMillis + '|'
+            + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public static Invalidation decode(String payload) {
+        String[] parts = payload.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed invalidation: " + payload);
+        }
+        List<Integer> ids = parts[3].isEmpty()
+            ? List.of()
+            : Arrays.stream(parts[3].split(",")).map(Integer::valueOf).collect(Collectors.toList());
+        return new Invalidation(parts[0], parts[1], Long.parseLong(parts[2]), ids);
+    }
+}
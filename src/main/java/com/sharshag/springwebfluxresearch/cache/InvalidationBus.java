@@ -0,0 +1,14 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Broadcasts evictions to every node, including the publisher.
+ */
+public interface InvalidationBus {
+
+    Mono<Void> publish(Invalidation invalidation);
+
+    Flux<Invalidation> invalidations();
+}
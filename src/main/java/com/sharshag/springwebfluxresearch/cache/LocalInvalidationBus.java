@@ -0,0 +1,27 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process bus: only caches in this JVM hear each other. Enough for a single
+ * node and for tests that run several caches side by side.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+        (signal, result) -> result == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final Sinks.Many<Invalidation> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Mono<Void> publish(Invalidation invalidation) {
+        return Mono.fromRunnable(() -> sink.emitNext(invalidation, RETRY_NON_SERIALIZED));
+    }
+
+    @Override
+    public Flux<Invalidation> invalidations() {
+        return sink.asFlux();
+    }
+}
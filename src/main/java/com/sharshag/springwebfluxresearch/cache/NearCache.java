@@ -0,0 +1,70 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sharshag.springwebfluxresearch.domain.Anime;
+
+/**
+ * Bounded, least recently used in-process tier. Entries expire after a fixed
+ * time so a missed invalidation cannot keep a stale anime forever.
+ */
+class NearCache {
+
+    private final Map<Integer, Entry> entries;
+    private final long ttlNanos;
+    private long generation;
+
+    NearCache(int capacity, long ttlNanos) {
+        this.ttlNanos = ttlNanos;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized Entry get(int id, long now) {
+        Entry entry = entries.get(id);
+        if (entry != null && now - entry.loadedAt > ttlNanos) {
+            entries.remove(id);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Counter bumped by every eviction; a load that started before the current
+     * generation may have read a value that was invalidated meanwhile.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    synchronized void put(Anime anime, long loadedAt, long loadGeneration) {
+        if (loadGeneration == generation) {
+            entries.put(anime.getId(), new Entry(anime, loadedAt));
+        }
+    }
+
+    synchronized void evict(Iterable<Integer> ids) {
+        generation++;
+        ids.forEach(entries::remove);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static class Entry {
+
+        final Anime anime;
+        final long loadedAt;
+
+        Entry(Anime anime, long loadedAt) {
+            this.anime = anime;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.time.Duration;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Broadcasts over Postgres LISTEN/NOTIFY. Publishing goes through the regular
+ * pool with pg_notify, so a notification sent inside a transaction is only
+ * delivered once it commits. Listening needs a connection of its own that stays
+ * open, taken from an unpooled factory and reopened after failures.
+ */
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus, SmartLifecycle {
+
+    public static final String CHANNEL = "anime_cache";
+
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+        (signal, result) -> result == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    private final ConnectionFactory listenerConnectionFactory;
+    private final DatabaseClient databaseClient;
+    private final Sinks.Many<Invalidation> sink = Sinks.many().multicast().directBestEffort();
+    private volatile Disposable listener;
+
+    public PostgresInvalidationBus(ConnectionFactory listenerConnectionFactory, DatabaseClient databaseClient) {
+        this.listenerConnectionFactory = listenerConnectionFactory;
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Void> publish(Invalidation invalidation) {
+        return databaseClient.sql("SELECT pg_notify('" + CHANNEL + "', :payload)")
+            .bind("payload", invalidation.encode())
+            .then();
+    }
+
+    @Override
+    public Flux<Invalidation> invalidations() {
+        return sink.asFlux();
+    }
+
+    @Override
+    public void start() {
+        listener = Flux.usingWhen(listenerConnectionFactory.create(), this::listen, Connection::close)
+            .doOnError(e -> log.warn("lost the {} listener connection, reconnecting: {}", CHANNEL, e.toString()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(invalidation -> sink.emitNext(invalidation, RETRY_NON_SERIALIZED));
+    }
+
+    private Flux<Invalidation> listen(Connection connection) {
+        PostgresqlConnection postgresqlConnection = (PostgresqlConnection) connection;
+        return postgresqlConnection.createStatement("LISTEN " + CHANNEL)
+            .execute()
+            .flatMap(PostgresqlResult::getRowsUpdated)
+            .thenMany(postgresqlConnection.getNotifications())
+            .filter(notification -> notification.getParameter() != null)
+            .flatMap(notification -> {
+                try {
+                    return Mono.just(Invalidation.decode(notification.getParameter()));
+                } catch (IllegalArgumentException e) {
+                    log.warn("ignoring {} notification: {}", CHANNEL, e.getMessage());
+                    return Mono.empty();
+                }
+            });
+    }
+
+    @Override
+    public void stop() {
+        if (listener != null) {
+            listener.dispose();
+            listener = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listener != null;
+    }
+}
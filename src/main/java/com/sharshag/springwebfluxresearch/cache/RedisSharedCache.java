@@ -0,0 +1,31 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.time.Duration;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import reactor.core.publisher.Mono;
+
+public class RedisSharedCache implements SharedCache {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisSharedCache(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public Mono<Void> put(String key, String value, Duration ttl) {
+        return redisTemplate.opsForValue().set(key, value, ttl).then();
+    }
+
+    @Override
+    public Mono<Void> evict(String key) {
+        return redisTemplate.delete(key).then();
+    }
+}
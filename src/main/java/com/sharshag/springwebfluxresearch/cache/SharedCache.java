@@ -0,0 +1,18 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Key-value store shared by all nodes, holding serialized values with a TTL.
+ * The operations are the Redis GET, SET EX and DEL subset.
+ */
+public interface SharedCache {
+
+    Mono<String> get(String key);
+
+    Mono<Void> put(String key, String value, Duration ttl);
+
+    Mono<Void> evict(String key);
+}
@@ -0,0 +1,71 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.context.SmartLifecycle;
+
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Dispatches to the cache of the tenant in the Reactor context. Each tenant
+ * has its own near-cache capacity, so a tenant reading through a large
+ * catalog cannot evict the hot entries of another.
+ */
+public class TenantAnimeCache implements AnimeCache, SmartLifecycle {
+
+    private final Map<String, TieredAnimeCache> tenants;
+    private volatile boolean running;
+
+    public TenantAnimeCache(Map<String, TieredAnimeCache> tenants) {
+        this.tenants = new LinkedHashMap<>(tenants);
+    }
+
+    @Override
+    public Mono<Anime> get(int id, Supplier<Mono<Anime>> loader) {
+        return Mono.deferContextual(context -> cacheOf(TenantContext.current(context)).get(id, loader));
+    }
+
+    @Override
+    public Mono<Void> evict(Collection<Integer> ids) {
+        return Mono.deferContextual(context -> cacheOf(TenantContext.current(context)).evict(ids));
+    }
+
+    private AnimeCache cacheOf(String tenant) {
+        TieredAnimeCache cache = tenants.get(tenant);
+        if (cache == null) {
+            throw new IllegalStateException("No cache for tenant " + tenant);
+        }
+        return cache;
+    }
+
+    @Override
+    public void start() {
+        tenants.values().forEach(TieredAnimeCache::start);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        tenants.values().forEach(TieredAnimeCache::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before the bus, like the caches it holds.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
@@ -0,0 +1,224 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.context.SmartLifecycle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Near cache in front of an optional shared cache in front of the database.
+ * Evictions clear both tiers and are broadcast so the other nodes drop their
+ * near copies; the near TTL bounds staleness when a broadcast is missed.
+ * <p>
+ * Meters: {@code anime.cache.gets} by tier and result for hit rates,
+ * {@code anime.cache.near.age} for how old the near copies served are, and
+ * {@code anime.cache.invalidation.lag} for how long after a peer's write this
+ * node heard about it. All meters are tagged with the tenant.
+ * <p>
+ * One instance serves one tenant: its keys in the shared tier are prefixed
+ * with the tenant and it ignores invalidations of other tenants.
+ */
+@Slf4j
+public class TieredAnimeCache implements AnimeCache, SmartLifecycle {
+
+    /**
+     * Ids per broadcast, keeping a NOTIFY payload well below its 8000 byte limit.
+     */
+    static final int IDS_PER_INVALIDATION = 500;
+
+    private final String origin;
+    private final String tenant;
+    private final String keyPrefix;
+    private final NearCache nearCache;
+    private final SharedCache sharedCache;
+    private final Duration sharedTtl;
+    private final InvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Timer nearAge;
+    private final Timer invalidationLag;
+    private volatile Disposable subscription;
+
+    /**
+     * @param sharedCache null to cache on this node only
+     * @param invalidationBus null when there are no peers to tell
+     */
+    public TieredAnimeCache(String origin, String tenant, int nearCapacity, Duration nearTtl, SharedCache sharedCache,
+            Duration sharedTtl, InvalidationBus invalidationBus, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.origin = origin;
+        this.tenant = tenant;
+        this.keyPrefix = "anime:" + tenant + ":";
+        this.nearCache = new NearCache(nearCapacity, nearTtl.toNanos());
+        this.sharedCache = sharedCache;
+        this.sharedTtl = sharedTtl;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        this.nearHits = gets(meterRegistry, tenant, "near", "hit");
+        this.nearMisses = gets(meterRegistry, tenant, "near", "miss");
+        this.sharedHits = gets(meterRegistry, tenant, "shared", "hit");
+        this.sharedMisses = gets(meterRegistry, tenant, "shared", "miss");
+        this.nearAge = Timer.builder("anime.cache.near.age")
+            .description("Age of the near-cache entries served")
+            .publishPercentiles(0.5, 0.99)
+            .tag("tenant", tenant)
+            .register(meterRegistry);
+        this.invalidationLag = Timer.builder("anime.cache.invalidation.lag")
+            .description("Time from a peer's eviction to this node dropping its near copy")
+            .publishPercentiles(0.5, 0.99)
+            .tag("tenant", tenant)
+            .register(meterRegistry);
+        Gauge.builder("anime.cache.near.size", nearCache, NearCache::size)
+            .tag("tenant", tenant)
+            .register(meterRegistry);
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String tenant, String tier, String result) {
+        return Counter.builder("anime.cache.gets")
+            .tag("tenant", tenant)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Anime> get(int id, Supplier<Mono<Anime>> loader) {
+        return Mono.defer(() -> {
+            long now = System.nanoTime();
+            NearCache.Entry entry = nearCache.get(id, now);
+            if (entry != null) {
+                nearHits.increment();
+                nearAge.record(now - entry.loadedAt, TimeUnit.NANOSECONDS);
+                return Mono.just(entry.anime);
+            }
+            nearMisses.increment();
+            long generation = nearCache.generation();
+            return getShared(id)
+                .switchIfEmpty(Mono.defer(loader).flatMap(anime -> putShared(anime, generation).thenReturn(anime)))
+                .doOnNext(anime -> nearCache.put(anime, System.nanoTime(), generation));
+        });
+    }
+
+    @Override
+    public Mono<Void> evict(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            nearCache.evict(ids);
+            Mono<Void> shared = sharedCache == null
+                ? Mono.empty()
+                : Flux.fromIterable(ids).flatMap(id -> sharedCache.evict(keyPrefix + id)).then();
+            Mono<Void> broadcast = invalidationBus == null
+                ? Mono.empty()
+                : Flux.fromIterable(ids)
+                    .buffer(IDS_PER_INVALIDATION)
+                    .concatMap(chunk -> invalidationBus.publish(
+                        new Invalidation(origin, tenant, System.currentTimeMillis(), chunk)))
+                    .then();
+            return shared.then(broadcast);
+        });
+    }
+
+    private Mono<Anime> getShared(int id) {
+        if (sharedCache == null) {
+            return Mono.empty();
+        }
+        return sharedCache.get(keyPrefix + id)
+            .map(this::read)
+            .doOnNext(anime -> sharedHits.increment())
+            .switchIfEmpty(Mono.fromRunnable(sharedMisses::increment))
+            .onErrorResume(e -> {
+                log.warn("shared cache read of anime {} failed, loading it instead: {}", id, e.toString());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Writes a loaded anime to the shared tier unless an eviction this node knows
+     * of, its own or a peer's, happened since the load began: the loaded row may
+     * predate it. An eviction that lands while the put is in flight deletes the
+     * entry again. Evictions this node has not heard of yet are bounded by the
+     * shared TTL.
+     */
+    private Mono<Void> putShared(Anime anime, long loadGeneration) {
+        if (sharedCache == null || nearCache.generation() != loadGeneration) {
+            return Mono.empty();
+        }
+        String key = keyPrefix + anime.getId();
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(anime))
+            .flatMap(json -> sharedCache.put(key, json, sharedTtl))
+            .then(Mono.defer(() -> nearCache.generation() != loadGeneration ? sharedCache.evict(key) : Mono.empty()))
+            .onErrorResume(e -> {
+                log.warn("shared cache write of anime {} failed: {}", anime.getId(), e.toString());
+                return Mono.empty();
+            });
+    }
+
+    private Anime read(String json) {
+        try {
+            return objectMapper.readValue(json, Anime.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable cached anime", e);
+        }
+    }
+
+    private void onInvalidation(Invalidation invalidation) {
+        if (origin.equals(invalidation.getOrigin()) || !tenant.equals(invalidation.getTenant())) {
+            return;
+        }
+        nearCache.evict(invalidation.getIds());
+        long lag = System.currentTimeMillis() - invalidation.getPublishedAtMillis();
+        invalidationLag.record(Math.max(0, lag), TimeUnit.MILLISECONDS);
+    }
+
+    int nearSize() {
+        return nearCache.size();
+    }
+
+    @Override
+    public void start() {
+        if (invalidationBus != null) {
+            subscription = invalidationBus.invalidations().subscribe(this::onInvalidation);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+    /**
+     * Started before the bus so no invalidation published after startup is missed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+}
@@ -0,0 +1,196 @@
+package com.sharshag.springwebfluxresearch.chaos;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.sharshag.springwebfluxresearch.r2dbc.DelegatingConnection;
+import com.sharshag.springwebfluxresearch.r2dbc.DelegatingStatement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Degrades a {@link ConnectionFactory} on purpose, to rehearse database
+ * brownouts without one: acquiring a connection is delayed or fails, and the
+ * statements matching a {@link StatementFault} are delayed, fail before they
+ * run, or have their row streams dropped or truncated. Faults are drawn per
+ * acquisition and per execution; statements no fault matches pass through
+ * untouched. The errors are the R2DBC SPI's own resource exceptions, so they
+ * travel the same translation and retry paths as real outages.
+ * <p>
+ * Meters: {@code r2dbc.chaos.faults} per injected fault.
+ */
+public class FaultInjectingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, DisposableBean {
+
+    private final ConnectionFactory delegate;
+    private final Latency acquireLatency;
+    private final double acquireFailureRate;
+    private final List<StatementFault> statementFaults;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> faults = new ConcurrentHashMap<>();
+
+    public FaultInjectingConnectionFactory(ConnectionFactory delegate, Latency acquireLatency, double acquireFailureRate,
+            List<StatementFault> statementFaults, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.acquireLatency = acquireLatency;
+        this.acquireFailureRate = acquireFailureRate;
+        this.statementFaults = List.copyOf(statementFaults);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Mono<Connection> connection = roll(acquireFailureRate)
+                ? Mono.error(injected("acquire-failure",
+                    new R2dbcTransientResourceException("Injected fault: connection could not be acquired")))
+                : Mono.from(delegate.create()).map(FaultyConnection::new);
+            return delayed(acquireLatency, "acquire-latency", connection);
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean) {
+            ((DisposableBean) delegate).destroy();
+        } else if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    private <T> Mono<T> delayed(Latency latency, String fault, Mono<T> source) {
+        Duration delay = latency.sample();
+        if (delay.isZero()) {
+            return source;
+        }
+        count(fault);
+        return Mono.delay(delay).then(source);
+    }
+
+    private static boolean roll(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private <E extends Throwable> E injected(String fault, E error) {
+        count(fault);
+        return error;
+    }
+
+    private void count(String fault) {
+        faults.computeIfAbsent(fault, f -> Counter.builder("r2dbc.chaos.faults")
+            .description("Faults injected into the R2DBC layer")
+            .tag("fault", f)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    private class FaultyConnection extends DelegatingConnection {
+
+        FaultyConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            Statement statement = super.createStatement(sql);
+            for (StatementFault fault : statementFaults) {
+                if (fault.matches(sql)) {
+                    return new FaultyStatement(statement, fault);
+                }
+            }
+            return statement;
+        }
+    }
+
+    private class FaultyStatement extends DelegatingStatement {
+
+        private final StatementFault fault;
+
+        FaultyStatement(Statement delegate, StatementFault fault) {
+            super(delegate);
+            this.fault = fault;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return Mono.defer(() -> delayed(fault.getLatency(), "latency", Mono.<Void>empty()))
+                .thenMany(Flux.<Result>defer(() -> {
+                    if (roll(fault.getFailureRate())) {
+                        return Flux.error(injected("failure",
+                            new R2dbcTransientResourceException("Injected fault: statement failed")));
+                    }
+                    Flux<Result> results = Flux.from(super.execute());
+                    if (roll(fault.getDropRate())) {
+                        count("drop");
+                        return results.map(result -> new FaultyResult(result, fault.getRowsBeforeFault(), true));
+                    }
+                    if (roll(fault.getTruncateRate())) {
+                        count("truncate");
+                        return results.map(result -> new FaultyResult(result, fault.getRowsBeforeFault(), false));
+                    }
+                    return results;
+                }));
+        }
+    }
+
+    /**
+     * A result whose rows stop after a limit: with an error when the stream is
+     * dropped, silently when it is truncated.
+     */
+    private static class FaultyResult implements Result {
+
+        private final Result delegate;
+        private final int rows;
+        private final boolean drop;
+
+        FaultyResult(Result delegate, int rows, boolean drop) {
+            this.delegate = delegate;
+            this.rows = rows;
+            this.drop = drop;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            return delegate.getRowsUpdated();
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            Flux<T> limited = Flux.<T>from(delegate.map(mappingFunction)).take(rows);
+            return drop
+                ? limited.concatWith(Mono.error(new R2dbcNonTransientResourceException(
+                    "Injected fault: connection lost after " + rows + " rows")))
+                : limited;
+        }
+    }
+}
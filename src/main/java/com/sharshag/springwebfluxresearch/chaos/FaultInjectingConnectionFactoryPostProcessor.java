@@ -0,0 +1,39 @@
+package com.sharshag.springwebfluxresearch.chaos;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import com.sharshag.springwebfluxresearch.r2dbc.ObservedConnectionFactory;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Wraps {@link ConnectionFactory} beans in a {@link FaultInjectingConnectionFactory}.
+ * Being {@link Ordered} it runs before the unordered observation post-processor,
+ * so injected delays and failures show up in statement timings and traces.
+ */
+public class FaultInjectingConnectionFactoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final Function<ConnectionFactory, FaultInjectingConnectionFactory> decorator;
+
+    public FaultInjectingConnectionFactoryPostProcessor(
+            Function<ConnectionFactory, FaultInjectingConnectionFactory> decorator) {
+        this.decorator = decorator;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ConnectionFactory) || bean instanceof FaultInjectingConnectionFactory
+                || bean instanceof ObservedConnectionFactory) {
+            return bean;
+        }
+        return decorator.apply((ConnectionFactory) bean);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,54 @@
+package com.sharshag.springwebfluxresearch.chaos;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Value;
+
+/**
+ * An injected delay: {@code base} plus a random part drawn from the
+ * distribution, where {@code spread} is the width of the uniform range or the
+ * mean of the exponential tail.
+ */
+@Value
+public class Latency {
+
+    public static final Latency NONE = new Latency(Distribution.FIXED, Duration.ZERO, Duration.ZERO);
+
+    /**
+     * The exponential tail is cut at this many spreads, so a single sample cannot stall a test for minutes.
+     */
+    static final int MAX_SPREADS = 20;
+
+    Distribution distribution;
+    Duration base;
+    Duration spread;
+
+    public Duration sample() {
+        double random = ThreadLocalRandom.current().nextDouble();
+        switch (distribution) {
+            case UNIFORM:
+                return base.plusNanos((long) (spread.toNanos() * random));
+            case EXPONENTIAL:
+                double spreads = Math.min(-Math.log(1 - random), MAX_SPREADS);
+                return base.plusNanos((long) (spread.toNanos() * spreads));
+            default:
+                return base;
+        }
+    }
+
+    public enum Distribution {
+        /**
+         * Always the base.
+         */
+        FIXED,
+        /**
+         * Evenly between base and base + spread.
+         */
+        UNIFORM,
+        /**
+         * Mostly close to base with a long tail, like a database under contention.
+         */
+        EXPONENTIAL
+    }
+}
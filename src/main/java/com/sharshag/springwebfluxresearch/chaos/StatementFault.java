@@ -0,0 +1,25 @@
+package com.sharshag.springwebfluxresearch.chaos;
+
+import java.util.regex.Pattern;
+
+import lombok.Value;
+
+/**
+ * Faults for the statements whose SQL matches {@code pattern}. The rates are
+ * probabilities per execution; a dropped stream fails like a lost connection
+ * after {@code rowsBeforeFault} rows, a truncated one completes there.
+ */
+@Value
+public class StatementFault {
+
+    Pattern pattern;
+    Latency latency;
+    double failureRate;
+    double dropRate;
+    double truncateRate;
+    int rowsBeforeFault;
+
+    public boolean matches(String sql) {
+        return pattern.matcher(sql).find();
+    }
+}
@@ -0,0 +1,302 @@
+package com.sharshag.springwebfluxresearch.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimeLookup;
+import com.sharshag.springwebfluxresearch.domain.AnimePatch;
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+import com.sharshag.springwebfluxresearch.idempotency.IdempotencyStore;
+
+import io.netty.channel.ChannelOption;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+/**
+ * Reactive client for every {@code /animes} operation. Connections are pooled
+ * and kept alive; GET, PUT, DELETE and POSTs carrying an idempotency key are
+ * retried with jittered backoff; GET by id is hedged and revalidated with its
+ * ETag. List, bulk and export calls stream instead of buffering the body.
+ * Close the client to release its connection pool.
+ */
+public class AnimeClient implements AutoCloseable {
+
+    private final AnimeClientProperties properties;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final EtagCache<Anime> etagCache;
+
+    public AnimeClient(AnimeClientProperties properties) {
+        this(properties, WebClient.builder());
+    }
+
+    /**
+     * @param webClientBuilder extra filters or codecs; base url, connector and credentials are set here
+     */
+    public AnimeClient(AnimeClientProperties properties, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.connectionProvider = ConnectionProvider.builder("anime-client")
+            .maxConnections(properties.getMaxConnections())
+            .maxIdleTime(properties.getMaxIdleTime())
+            .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+            .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .keepAlive(true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+            .responseTimeout(properties.getResponseTimeout());
+        this.webClient = webClientBuilder
+            .baseUrl(properties.getBaseUrl())
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .defaultHeaders(headers -> {
+                if (properties.getUsername() != null) {
+                    headers.setBasicAuth(properties.getUsername(), properties.getPassword());
+                }
+            })
+            .build();
+        this.etagCache = properties.getEtagCacheSize() > 0 ? new EtagCache<>(properties.getEtagCacheSize()) : null;
+    }
+
+    /**
+     * Streams the catalog as NDJSON; needs the ADMIN role.
+     */
+    public Flux<Anime> listAll() {
+        return webClient.get()
+            .uri("/animes")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .retrieve()
+            .bodyToFlux(Anime.class)
+            .retryWhen(retry());
+    }
+
+    public Flux<AnimeLookup> findAllByIds(Collection<Integer> ids) {
+        return webClient.get()
+            .uri(uri -> uri.path("/animes").queryParam("ids", ids.toArray()).build())
+            .accept(MediaType.APPLICATION_NDJSON)
+            .retrieve()
+            .bodyToFlux(AnimeLookup.class)
+            .retryWhen(retry());
+    }
+
+    public Mono<Anime> findById(int id) {
+        return hedged(() -> conditionalGet(id)).retryWhen(retry());
+    }
+
+    /**
+     * Raw export body; the caller must release every buffer, e.g. with
+     * {@code DataBufferUtils.write} or {@code DataBufferUtils.release}.
+     */
+    public Flux<DataBuffer> export(ExportFormat format, boolean gzip) {
+        return webClient.get()
+            .uri(uri -> uri.path("/animes/export")
+                .queryParam("format", format.getExtension())
+                .queryParam("gzip", gzip)
+                .build())
+            .accept(format.getMediaType())
+            .retrieve()
+            .bodyToFlux(DataBuffer.class);
+    }
+
+    /**
+     * Not retried: without an idempotency key a retry could create the anime twice.
+     */
+    public Mono<Anime> save(Anime anime) {
+        return webClient.post()
+            .uri("/animes")
+            .bodyValue(anime)
+            .retrieve()
+            .bodyToMono(Anime.class);
+    }
+
+    public Mono<Anime> save(Anime anime, String idempotencyKey) {
+        return webClient.post()
+            .uri("/animes")
+            .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .bodyValue(anime)
+            .retrieve()
+            .bodyToMono(Anime.class)
+            .retryWhen(retry());
+    }
+
+    /**
+     * Not retried: without an idempotency key a retry could create the animes twice.
+     */
+    public Flux<Anime> saveAll(List<Anime> animes) {
+        return webClient.post()
+            .uri("/animes/batch")
+            .bodyValue(animes)
+            .retrieve()
+            .bodyToFlux(Anime.class);
+    }
+
+    public Flux<Anime> saveAll(List<Anime> animes, String idempotencyKey) {
+        return webClient.post()
+            .uri("/animes/batch")
+            .header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .bodyValue(animes)
+            .retrieve()
+            .bodyToFlux(Anime.class)
+            .retryWhen(retry());
+    }
+
+    public Mono<Void> update(Anime anime) {
+        return webClient.put()
+            .uri("/animes/{id}", anime.getId())
+            .bodyValue(anime)
+            .retrieve()
+            .bodyToMono(Void.class)
+            .doOnTerminate(() -> evict(anime.getId()))
+            .retryWhen(retry());
+    }
+
+    /**
+     * Not retried: a retry of an applied patch would fail its version check with 409.
+     */
+    public Mono<Anime> patch(int id, AnimePatch patch) {
+        return webClient.patch()
+            .uri("/animes/{id}", id)
+            .bodyValue(patch)
+            .retrieve()
+            .bodyToMono(Anime.class)
+            .doOnTerminate(() -> evict(id));
+    }
+
+    public Mono<List<Anime>> patchAll(List<AnimePatch> patches) {
+        return webClient.patch()
+            .uri("/animes/batch")
+            .bodyValue(patches)
+            .retrieve()
+            .bodyToFlux(Anime.class)
+            .collectList()
+            .doOnTerminate(() -> patches.forEach(patch -> evict(patch.getId())));
+    }
+
+    public Mono<Void> delete(int id) {
+        return webClient.delete()
+            .uri("/animes/{id}", id)
+            .retrieve()
+            .bodyToMono(Void.class)
+            .doOnTerminate(() -> evict(id))
+            .retryWhen(retry());
+    }
+
+    private Mono<Anime> conditionalGet(int id) {
+        String key = "/animes/" + id;
+        return Mono.defer(() -> {
+            EtagCache.Entry<Anime> cached = etagCache != null ? etagCache.get(key) : null;
+            return webClient.get()
+                .uri("/animes/{id}", id)
+                .headers(headers -> {
+                    if (cached != null) {
+                        headers.setIfNoneMatch(cached.getEtag());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                        return response.releaseBody().thenReturn(cached.getValue());
+                    }
+                    if (response.statusCode().isError()) {
+                        if (response.statusCode() == HttpStatus.NOT_FOUND) {
+                            evict(id);
+                        }
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    String etag = response.headers().asHttpHeaders().getFirst(HttpHeaders.ETAG);
+                    return response.bodyToMono(Anime.class)
+                        .doOnNext(anime -> {
+                            if (etagCache != null && etag != null) {
+                                etagCache.put(key, etag, anime);
+                            }
+                        });
+                });
+        });
+    }
+
+    /**
+     * Races the request against a copy sent after the hedge delay; the first
+     * value wins and the other is cancelled, so a fast failure of one copy does
+     * not hide a success of the other. The copy is only sent while the first
+     * request is pending or failed with a retryable error; a 404 or other
+     * final answer ends the race at once. When both fail, the first error is
+     * rethrown unwrapped so retries and callers see the real cause.
+     */
+    private <T> Mono<T> hedged(Supplier<Mono<T>> request) {
+        if (properties.getHedgeDelay().isZero()) {
+            return request.get();
+        }
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> finalFailure = Sinks.empty();
+            Mono<T> first = request.get()
+                .doOnError(e -> {
+                    if (!isRetryable(e)) {
+                        finalFailure.tryEmitError(e);
+                    }
+                });
+            // a final failure of the first request fails the pending delay instead of sending the copy
+            Mono<T> copy = Mono.delay(properties.getHedgeDelay())
+                .takeUntilOther(finalFailure.asMono())
+                .then(request.get());
+            return Mono.firstWithValue(first, copy);
+        }).onErrorMap(NoSuchElementException.class, AnimeClient::firstCause);
+    }
+
+    /**
+     * firstWithValue reports failures of all sources as a NoSuchElementException
+     * caused by a composite of their errors.
+     */
+    private static Throwable firstCause(NoSuchElementException e) {
+        if (e.getCause() == null) {
+            return e;
+        }
+        List<Throwable> causes = Exceptions.unwrapMultiple(e.getCause());
+        return causes.isEmpty() ? e : causes.get(0);
+    }
+
+    private Retry retry() {
+        return Retry.backoff(properties.getMaxRetries(), properties.getRetryBackoff())
+            .jitter(properties.getRetryJitter())
+            .filter(AnimeClient::isRetryable)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    static boolean isRetryable(Throwable throwable) {
+        if (throwable instanceof WebClientRequestException) {
+            return true;
+        }
+        if (throwable instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) throwable).getRawStatusCode();
+            return status == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status == HttpStatus.BAD_GATEWAY.value()
+                || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+        }
+        return false;
+    }
+
+    private void evict(int id) {
+        if (etagCache != null) {
+            etagCache.remove("/animes/" + id);
+        }
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.dispose();
+    }
+}
@@ -0,0 +1,67 @@
+package com.sharshag.springwebfluxresearch.client;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+/**
+ * Settings for {@link AnimeClient}. Not bound by this application; a calling
+ * service binds it with {@code @ConfigurationProperties} on its own bean method.
+ */
+@Data
+public class AnimeClientProperties {
+
+    private String baseUrl = "http://localhost:8080";
+
+    private String username;
+
+    private String password;
+
+    /**
+     * Keep-alive connections pooled per remote host.
+     */
+    private int maxConnections = 50;
+
+    /**
+     * Pooled connections idle longer than this are closed before reuse.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * How long a request may wait for a pooled connection.
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Longest gap between reads of one response.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Retries of idempotent calls after connection failures, 429 and 502-504; 0 disables them.
+     */
+    private int maxRetries = 2;
+
+    /**
+     * First retry delay, doubled on every further attempt.
+     */
+    private Duration retryBackoff = Duration.ofMillis(100);
+
+    /**
+     * Fraction of each backoff delay that is randomized.
+     */
+    private double retryJitter = 0.5;
+
+    /**
+     * A second GET is sent when the first has not answered within this delay and the
+     * first response wins; zero disables hedging.
+     */
+    private Duration hedgeDelay = Duration.ofMillis(50);
+
+    /**
+     * Animes kept with their ETag for conditional GETs; 0 disables the cache.
+     */
+    private int etagCacheSize = 1000;
+}
@@ -0,0 +1,41 @@
+package com.sharshag.springwebfluxresearch.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * Least recently used responses keyed by path, each with the ETag it was served with.
+ */
+class EtagCache<T> {
+
+    private final Map<String, Entry<T>> entries;
+
+    EtagCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized Entry<T> get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, String etag, T value) {
+        entries.put(key, new Entry<>(etag, value));
+    }
+
+    synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    @Value
+    static class Entry<T> {
+        String etag;
+        T value;
+    }
+}
@@ -0,0 +1,80 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.cache.AnimeCache;
+import com.sharshag.springwebfluxresearch.cache.InMemorySharedCache;
+import com.sharshag.springwebfluxresearch.cache.PostgresInvalidationBus;
+import com.sharshag.springwebfluxresearch.cache.RedisSharedCache;
+import com.sharshag.springwebfluxresearch.cache.SharedCache;
+import com.sharshag.springwebfluxresearch.cache.TenantAnimeCache;
+import com.sharshag.springwebfluxresearch.cache.TieredAnimeCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+@Configuration
+public class AnimeCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache", name = "invalidation", havingValue = "postgres")
+    public PostgresInvalidationBus postgresInvalidationBus(R2dbcProperties r2dbcProperties,
+            DatabaseClient databaseClient) {
+        // unpooled: the listener holds its connection for the lifetime of the application
+        ConnectionFactoryOptions options = ConnectionPools.options(r2dbcProperties.getUrl(), r2dbcProperties).build();
+        return new PostgresInvalidationBus(ConnectionFactories.get(options), databaseClient);
+    }
+
+    @Bean
+    public AnimeCache animeCache(AnimeCacheProperties animeCacheProperties,
+            ObjectProvider<PostgresInvalidationBus> invalidationBus,
+            ObjectProvider<ReactiveStringRedisTemplate> redisTemplate, TenancyProperties tenancyProperties,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (!animeCacheProperties.isEnabled()) {
+            return AnimeCache.none();
+        }
+
+        SharedCache sharedCache;
+        switch (animeCacheProperties.getShared()) {
+            case MEMORY:
+                sharedCache = new InMemorySharedCache();
+                break;
+            case REDIS:
+                sharedCache = new RedisSharedCache(redisTemplate.getObject());
+                break;
+            default:
+                sharedCache = null;
+                break;
+        }
+
+        String origin = UUID.randomUUID().toString();
+        Map<String, TieredAnimeCache> tenants = new LinkedHashMap<>();
+        for (String tenant : tenancyProperties.tenantIds()) {
+            tenants.put(tenant, new TieredAnimeCache(origin,
+                tenant,
+                animeCacheProperties.getNearMaxEntries(),
+                animeCacheProperties.getNearTtl(),
+                sharedCache,
+                animeCacheProperties.getSharedTtl(),
+                invalidationBus.getIfAvailable(),
+                objectMapper,
+                meterRegistry));
+        }
+        if (tenants.size() == 1) {
+            return tenants.values().iterator().next();
+        }
+        return new TenantAnimeCache(tenants);
+    }
+}
@@ -0,0 +1,62 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class AnimeCacheProperties {
+
+    /**
+     * Whether AnimeService reads by id go through the cache at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Animes kept in the in-process near cache.
+     */
+    private int nearMaxEntries = 10_000;
+
+    /**
+     * Longest a near copy is served; bounds staleness if an invalidation is missed.
+     */
+    private Duration nearTtl = Duration.ofSeconds(30);
+
+    private Shared shared = Shared.NONE;
+
+    private Duration sharedTtl = Duration.ofMinutes(5);
+
+    /**
+     * How evictions reach the other nodes.
+     */
+    private Invalidation invalidation = Invalidation.NONE;
+
+    public enum Shared {
+        /**
+         * Near cache only.
+         */
+        NONE,
+        /**
+         * Embedded map standing in for Redis; shared by nothing but this node.
+         */
+        MEMORY,
+        /**
+         * Redis through spring.redis.
+         */
+        REDIS
+    }
+
+    public enum Invalidation {
+        /**
+         * Single node: evictions stay local.
+         */
+        NONE,
+        /**
+         * Postgres LISTEN/NOTIFY on the primary from spring.r2dbc.
+         */
+        POSTGRES
+    }
+}
@@ -0,0 +1,29 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.audit.AuditLog;
+import com.sharshag.springwebfluxresearch.audit.AuditWebFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditConfig {
+
+    @Bean
+    public AuditLog auditLog(AuditProperties auditProperties, MeterRegistry meterRegistry) {
+        return new AuditLog(auditProperties.getDirectory(),
+            Math.toIntExact(auditProperties.getSegmentSize().toBytes()),
+            auditProperties.getRingCapacity(),
+            auditProperties.getSyncInterval(),
+            meterRegistry);
+    }
+
+    @Bean
+    public AuditWebFilter auditWebFilter(AuditLog auditLog) {
+        return new AuditWebFilter(auditLog);
+    }
+}
@@ -0,0 +1,37 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Where the audit segments are kept.
+     */
+    private Path directory = Paths.get("audit");
+
+    /**
+     * Size of every memory-mapped segment; a full one is closed and the next opened.
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Events that can wait for the writer; a power of two. Events beyond it are dropped and counted.
+     */
+    private int ringCapacity = 65_536;
+
+    /**
+     * Longest written events wait for the fsync they share with the events written with them.
+     */
+    private Duration syncInterval = Duration.ofMillis(50);
+}
@@ -0,0 +1,55 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.chaos.FaultInjectingConnectionFactory;
+import com.sharshag.springwebfluxresearch.chaos.FaultInjectingConnectionFactoryPostProcessor;
+import com.sharshag.springwebfluxresearch.chaos.Latency;
+import com.sharshag.springwebfluxresearch.chaos.StatementFault;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fault injection for brownout rehearsals, opt-in unlike the other features;
+ * the chaos profile turns it on with a moderate fault mix.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.chaos", name = "enabled", havingValue = "true")
+public class ChaosConfig {
+
+    @Bean
+    public static FaultInjectingConnectionFactoryPostProcessor faultInjectingConnectionFactoryPostProcessor(
+            ObjectProvider<ChaosProperties> chaosProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        // resolved when the connection factory is created, not while post-processors are registered
+        return new FaultInjectingConnectionFactoryPostProcessor(connectionFactory -> {
+            ChaosProperties properties = chaosProperties.getObject();
+            return new FaultInjectingConnectionFactory(connectionFactory,
+                latency(properties.getAcquireLatency()),
+                properties.getAcquireFailureRate(),
+                statementFaults(properties.getStatements()),
+                meterRegistry.getObject());
+        });
+    }
+
+    private static List<StatementFault> statementFaults(List<ChaosProperties.Statement> statements) {
+        return statements.stream()
+            .map(statement -> new StatementFault(Pattern.compile(statement.getPattern()),
+                latency(statement.getLatency()),
+                statement.getFailureRate(),
+                statement.getDropRate(),
+                statement.getTruncateRate(),
+                statement.getRowsBeforeFault()))
+            .collect(Collectors.toList());
+    }
+
+    private static Latency latency(ChaosProperties.Latency latency) {
+        return new Latency(latency.getDistribution(), latency.getBase(), latency.getSpread());
+    }
+}
@@ -0,0 +1,80 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.sharshag.springwebfluxresearch.chaos.Latency.Distribution;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.chaos")
+public class ChaosProperties {
+
+    /**
+     * Whether faults are injected into the R2DBC layer; never turn this on in production.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Delay before every connection is handed out.
+     */
+    private Latency acquireLatency = new Latency();
+
+    /**
+     * Share of connection acquisitions that fail.
+     */
+    private double acquireFailureRate = 0;
+
+    /**
+     * Faults for matching statements; the first matching entry applies.
+     */
+    private List<Statement> statements = new ArrayList<>();
+
+    @Data
+    public static class Latency {
+
+        private Distribution distribution = Distribution.FIXED;
+
+        private Duration base = Duration.ZERO;
+
+        /**
+         * Width of the uniform range or mean of the exponential tail above the base.
+         */
+        private Duration spread = Duration.ZERO;
+    }
+
+    @Data
+    public static class Statement {
+
+        /**
+         * Regular expression searched in the SQL.
+         */
+        private String pattern;
+
+        private Latency latency = new Latency();
+
+        /**
+         * Share of executions that fail before reaching the database.
+         */
+        private double failureRate = 0;
+
+        /**
+         * Share of executions whose rows end with a lost connection.
+         */
+        private double dropRate = 0;
+
+        /**
+         * Share of executions whose rows silently end early.
+         */
+        private double truncateRate = 0;
+
+        /**
+         * Rows delivered before a drop or truncation.
+         */
+        private int rowsBeforeFault = 10;
+    }
+}
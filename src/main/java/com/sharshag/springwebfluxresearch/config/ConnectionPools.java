@@ -0,0 +1,46 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.util.StringUtils;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Connection factories built by hand next to the auto-configured one, sharing
+ * its credentials and pool settings.
+ */
+final class ConnectionPools {
+
+    private ConnectionPools() {
+    }
+
+    static ConnectionFactoryOptions.Builder options(String url, R2dbcProperties r2dbcProperties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (StringUtils.hasText(r2dbcProperties.getUsername())) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (StringUtils.hasText(r2dbcProperties.getPassword())) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        return options;
+    }
+
+    static ConnectionPool pool(String name, ConnectionFactoryOptions options, R2dbcProperties r2dbcProperties,
+            int maxSize) {
+        R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get(options))
+            .name(name)
+            .initialSize(Math.min(pool.getInitialSize(), maxSize))
+            .maxSize(maxSize)
+            .maxIdleTime(pool.getMaxIdleTime())
+            .validationDepth(pool.getValidationDepth());
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            configuration.validationQuery(pool.getValidationQuery());
+        }
+        return new ConnectionPool(configuration.build());
+    }
+}
@@ -0,0 +1,40 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Profiles;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import reactor.blockhound.BlockHound;
+
+/**
+ * Development aids that cost startup time: BlockHound instrumentation and the
+ * bcrypt hash of the demo password. Registered on the SpringApplication so it
+ * runs before the context is built, and skipped when the prod profile is active.
+ */
+public class DevelopmentDiagnostics implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    public static final String PRODUCTION_PROFILE = "prod";
+
+    private static final AtomicBoolean INSTALLED = new AtomicBoolean();
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        if (event.getEnvironment().acceptsProfiles(Profiles.of(PRODUCTION_PROFILE))
+                || !INSTALLED.compareAndSet(false, true)) {
+            return;
+        }
+
+        BlockHound.install(
+            builder -> {
+                builder.allowBlockingCallsInside("java.util.UUID", "randomUUID")
+                .allowBlockingCallsInside("java.util.zip.InflaterInputStream", "read")
+                .allowBlockingCallsInside("org.springdoc.core.OpenAPIService","initializeHiddenRestController");
+            }
+        );
+
+        System.out.println(PasswordEncoderFactories.createDelegatingPasswordEncoder().encode("devdojo"));
+    }
+}
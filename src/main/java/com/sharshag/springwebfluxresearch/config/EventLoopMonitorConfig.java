@@ -0,0 +1,41 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+import com.sharshag.springwebfluxresearch.eventloop.EventLoopWatchdog;
+import com.sharshag.springwebfluxresearch.eventloop.LoopProbe;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@EnableConfigurationProperties(EventLoopMonitorProperties.class)
+@ConditionalOnProperty(prefix = "app.eventloop.monitor", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EventLoopMonitorConfig {
+
+    @Bean
+    public EventLoopWatchdog eventLoopWatchdog(ReactorResourceFactory reactorResourceFactory,
+            EventLoopMonitorProperties eventLoopMonitorProperties, NettyServerProperties nettyServerProperties,
+            MeterRegistry meterRegistry) {
+
+        // same cached group the Reactor Netty server picks for its worker loops
+        List<LoopProbe> probes = new ArrayList<>(LoopProbe.forEventLoopGroup("server",
+            reactorResourceFactory.getLoopResources().onServer(nettyServerProperties.isNativeTransport())));
+        if (eventLoopMonitorProperties.isIncludeParallelScheduler()) {
+            probes.addAll(LoopProbe.forScheduler("parallel", Schedulers.parallel(), Schedulers.DEFAULT_POOL_SIZE));
+        }
+
+        return new EventLoopWatchdog(probes,
+            eventLoopMonitorProperties.getSampleInterval(),
+            eventLoopMonitorProperties.getStallThreshold(),
+            eventLoopMonitorProperties.getRetainedStalls(),
+            meterRegistry);
+    }
+}
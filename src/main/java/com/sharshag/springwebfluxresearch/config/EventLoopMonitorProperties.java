@@ -0,0 +1,34 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.eventloop.monitor")
+public class EventLoopMonitorProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How often a probe task is submitted to every loop and outstanding probes are checked.
+     */
+    private Duration sampleInterval = Duration.ofMillis(100);
+
+    /**
+     * A probe still queued after this long counts as a stall and the loop's stack is captured.
+     */
+    private Duration stallThreshold = Duration.ofMillis(250);
+
+    /**
+     * Whether the workers of Schedulers.parallel() are probed alongside the Netty event loops.
+     */
+    private boolean includeParallelScheduler = true;
+
+    /**
+     * Stall reports kept for the admin endpoint.
+     */
+    private int retainedStalls = 50;
+}
@@ -0,0 +1,20 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /**
+     * Rows the database cursor fetches per round trip.
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * Rows encoded into a single response buffer.
+     */
+    private int rowsPerChunk = 500;
+}
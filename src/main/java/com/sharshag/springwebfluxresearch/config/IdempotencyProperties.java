@@ -0,0 +1,22 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a completed response is replayed for the same key.
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    /**
+     * Upper bound on remembered keys; the oldest are dropped first.
+     */
+    private int maxEntries = 10_000;
+}
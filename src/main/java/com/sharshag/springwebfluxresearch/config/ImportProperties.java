@@ -0,0 +1,40 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+    /**
+     * Valid rows handed to AnimeService.saveAll at a time.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Batches that may be in flight at once, each on its own connection.
+     */
+    private int pipelineDepth = 2;
+
+    /**
+     * Longest accepted line; anything longer fails the job instead of growing the heap.
+     */
+    private int maxLineLength = 64 * 1024;
+
+    private Path rejectDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "anime-import-rejects");
+
+    /**
+     * Uploads are spooled here before they are imported, and deleted afterwards.
+     */
+    private Path uploadDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "anime-import-uploads");
+
+    /**
+     * Finished jobs kept around for the status resource.
+     */
+    private int retainedJobs = 100;
+}
@@ -0,0 +1,61 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Transport tuning for the Reactor Netty server. Protocols (h2 over TLS, h2c
+ * otherwise) and the idle timeout come from server.http2 and server.netty; this
+ * covers what Spring Boot does not expose.
+ */
+@Slf4j
+@Configuration
+public class NettyServerConfig {
+
+    /**
+     * Replaces Boot's default factory so the worker count can be set; the
+     * EventLoopWatchdog probes the loops of this factory.
+     */
+    @Bean
+    public ReactorResourceFactory reactorServerResourceFactory(NettyServerProperties nettyServerProperties) {
+        ReactorResourceFactory resourceFactory = new ReactorResourceFactory();
+        Integer workerCount = nettyServerProperties.getWorkerCount();
+        if (workerCount != null) {
+            resourceFactory.setUseGlobalResources(false);
+            resourceFactory.setLoopResourcesSupplier(() -> LoopResources.create("reactor-http", workerCount, true));
+        }
+        return resourceFactory;
+    }
+
+    @Bean
+    public NettyServerCustomizer nettyServerTuning(ReactorResourceFactory reactorServerResourceFactory,
+            NettyServerProperties nettyServerProperties) {
+        return httpServer -> {
+            HttpServer server = httpServer
+                .runOn(reactorServerResourceFactory.getLoopResources(), nettyServerProperties.isNativeTransport())
+                .http2Settings(settings -> settings.maxConcurrentStreams(nettyServerProperties.getMaxConcurrentStreams()));
+
+            if (nettyServerProperties.isPooledAllocator()) {
+                server = server.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+            }
+            if (nettyServerProperties.isReusePort()) {
+                if (nettyServerProperties.isNativeTransport() && Epoll.isAvailable()) {
+                    server = server.option(EpollChannelOption.SO_REUSEPORT, true);
+                } else {
+                    log.warn("SO_REUSEPORT needs the native epoll transport, ignoring app.netty.reuse-port");
+                }
+            }
+            return server;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.netty")
+public class NettyServerProperties {
+
+    /**
+     * Event-loop threads; unset keeps Reactor Netty's default of one per core (minimum 4).
+     */
+    private Integer workerCount;
+
+    /**
+     * Use epoll when netty-transport-native-epoll can load, NIO otherwise.
+     */
+    private boolean nativeTransport = true;
+
+    /**
+     * SO_REUSEPORT on the listening socket so several processes can share the port; epoll only.
+     */
+    private boolean reusePort = false;
+
+    /**
+     * Allocate channel buffers from Netty's pooled, direct-preferring allocator.
+     */
+    private boolean pooledAllocator = true;
+
+    /**
+     * Streams a client may open concurrently on one HTTP/2 connection.
+     */
+    private long maxConcurrentStreams = 256;
+}
@@ -0,0 +1,43 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.outbox.FileOutboxSink;
+import com.sharshag.springwebfluxresearch.outbox.InMemoryOutboxSink;
+import com.sharshag.springwebfluxresearch.outbox.OutboxRelay;
+import com.sharshag.springwebfluxresearch.outbox.OutboxSink;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(OutboxProperties outboxProperties, ObjectMapper objectMapper) {
+        if (outboxProperties.getSink() == OutboxProperties.Sink.FILE) {
+            return new FileOutboxSink(outboxProperties.getFile(), objectMapper);
+        }
+        return new InMemoryOutboxSink(outboxProperties.getMemoryCapacity());
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxProperties outboxProperties, DatabaseClient databaseClient,
+            ReactiveTransactionManager transactionManager, OutboxSink outboxSink, TenancyProperties tenancyProperties,
+            MeterRegistry meterRegistry) {
+        return new OutboxRelay(databaseClient,
+            TransactionalOperator.create(transactionManager),
+            outboxSink,
+            tenancyProperties.tenantIds(),
+            outboxProperties.getPollInterval(),
+            outboxProperties.getBatchSize(),
+            outboxProperties.getParallelism(),
+            meterRegistry);
+    }
+}
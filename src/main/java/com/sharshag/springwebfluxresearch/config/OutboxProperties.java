@@ -0,0 +1,74 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether this node relays the outbox; the trigger records changes regardless.
+     * Off by default: relayed events leave the table, so pick the sink deliberately.
+     * While off, events older than the retention are pruned undelivered.
+     */
+    private boolean enabled;
+
+    /**
+     * How long undelivered events are kept while the relay is off.
+     */
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * How often expired events are pruned while the relay is off.
+     */
+    private Duration pruneInterval = Duration.ofMinutes(1);
+
+    /**
+     * Events deleted per statement when pruning.
+     */
+    private int pruneBatchSize = 1000;
+
+    /**
+     * How often idle workers look for new events.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Events claimed and delivered per transaction.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Workers draining concurrently, each on its own connection.
+     */
+    private int parallelism = 2;
+
+    private Sink sink = Sink.MEMORY;
+
+    /**
+     * Events kept by the memory sink.
+     */
+    private int memoryCapacity = 10_000;
+
+    /**
+     * NDJSON file the file sink appends to.
+     */
+    private Path file = Paths.get("outbox/anime-events.ndjson");
+
+    public enum Sink {
+        /**
+         * Recent events in memory, for tests and local runs; the rest are lost.
+         */
+        MEMORY,
+        /**
+         * One JSON line per event, synced to disk per batch.
+         */
+        FILE
+    }
+}
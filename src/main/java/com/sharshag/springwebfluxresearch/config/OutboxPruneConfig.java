@@ -0,0 +1,32 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.sharshag.springwebfluxresearch.outbox.OutboxPruner;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Without the relay nothing else removes what the outbox trigger records.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class OutboxPruneConfig {
+
+    @Bean
+    public OutboxPruner outboxPruner(OutboxProperties outboxProperties, DatabaseClient databaseClient,
+            TenancyProperties tenancyProperties, MeterRegistry meterRegistry) {
+        return new OutboxPruner(databaseClient,
+            tenancyProperties.tenantIds(),
+            Clock.systemUTC(),
+            outboxProperties.getPruneInterval(),
+            outboxProperties.getRetention(),
+            outboxProperties.getPruneBatchSize(),
+            meterRegistry);
+    }
+}
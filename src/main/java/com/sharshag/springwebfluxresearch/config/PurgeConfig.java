@@ -0,0 +1,36 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Clock;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.sharshag.springwebfluxresearch.purge.AnimePurger;
+import com.sharshag.springwebfluxresearch.shutdown.InFlightRequests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PurgeConfig {
+
+    @Bean
+    public AnimePurger animePurger(PurgeProperties purgeProperties, DatabaseClient databaseClient,
+            TenancyProperties tenancyProperties, ObjectProvider<InFlightRequests> inFlightRequests,
+            MeterRegistry meterRegistry) {
+        // without app.shutdown nothing counts requests, and every tick is treated as quiet
+        InFlightRequests requests = inFlightRequests.getIfAvailable();
+        return new AnimePurger(databaseClient,
+            tenancyProperties.tenantIds(),
+            requests != null ? requests::size : () -> 0,
+            Clock.systemUTC(),
+            purgeProperties.getInterval(),
+            purgeProperties.getRetention(),
+            purgeProperties.getBatchSize(),
+            purgeProperties.getQuietThreshold(),
+            meterRegistry);
+    }
+}
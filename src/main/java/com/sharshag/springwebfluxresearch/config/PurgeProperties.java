@@ -0,0 +1,37 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.purge")
+public class PurgeProperties {
+
+    /**
+     * Whether this node purges soft-deleted animes; deletes are soft regardless.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time between purge batches.
+     */
+    private Duration interval = Duration.ofSeconds(1);
+
+    /**
+     * How long a soft-deleted anime is kept before it may be purged.
+     */
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * Rows removed per tenant and batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Batches are skipped while more requests than this are in flight.
+     */
+    private int quietThreshold = 8;
+}
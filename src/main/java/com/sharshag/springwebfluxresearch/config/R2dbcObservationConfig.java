@@ -0,0 +1,18 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.r2dbc.ObservedConnectionFactoryPostProcessor;
+import com.sharshag.springwebfluxresearch.r2dbc.StatementListener;
+
+@Configuration
+public class R2dbcObservationConfig {
+
+    @Bean
+    public static ObservedConnectionFactoryPostProcessor observedConnectionFactoryPostProcessor(
+            ObjectProvider<StatementListener> statementListeners) {
+        return new ObservedConnectionFactoryPostProcessor(statementListeners);
+    }
+}
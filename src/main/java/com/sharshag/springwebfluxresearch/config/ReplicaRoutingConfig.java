@@ -0,0 +1,53 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.r2dbc.ReadWriteRoutingConnectionFactory;
+import com.sharshag.springwebfluxresearch.r2dbc.ReadYourWritesTracker;
+import com.sharshag.springwebfluxresearch.r2dbc.ReplicaConnectionFactory;
+import com.sharshag.springwebfluxresearch.r2dbc.ReplicaHealthMonitor;
+
+import io.r2dbc.pool.ConnectionPool;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+@ConditionalOnProperty(prefix = "app.r2dbc.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+            ReplicaRoutingProperties replicaRoutingProperties) {
+
+        List<ReplicaConnectionFactory> replicas = new ArrayList<>();
+        List<String> urls = replicaRoutingProperties.getUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + i;
+            replicas.add(new ReplicaConnectionFactory(name, connectionPool(name, urls.get(i), r2dbcProperties)));
+        }
+
+        return new ReadWriteRoutingConnectionFactory(
+            connectionPool("primary", r2dbcProperties.getUrl(), r2dbcProperties),
+            replicas,
+            new ReadYourWritesTracker(replicaRoutingProperties.getReadYourWritesWindow()));
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(ReadWriteRoutingConnectionFactory connectionFactory,
+            ReplicaRoutingProperties replicaRoutingProperties) {
+        return new ReplicaHealthMonitor(connectionFactory,
+            replicaRoutingProperties.getHealthCheckInterval(),
+            replicaRoutingProperties.getHealthCheckTimeout());
+    }
+
+    private ConnectionPool connectionPool(String name, String url, R2dbcProperties r2dbcProperties) {
+        return ConnectionPools.pool(name, ConnectionPools.options(url, r2dbcProperties).build(), r2dbcProperties,
+            r2dbcProperties.getPool().getMaxSize());
+    }
+}
@@ -0,0 +1,30 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.r2dbc.replicas")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * R2DBC urls of the read replicas; credentials and pool sizing are taken from spring.r2dbc.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long reads of a principal stay on the primary after it wrote.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+}
@@ -0,0 +1,35 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Shape of the AnimeService.saveAll pipeline, used by POST /animes/batch and imports.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.save-all")
+public class SaveAllProperties {
+
+    /**
+     * Inserts in flight at once, and with ordered emission also how far results
+     * may run ahead of the oldest unfinished insert. Only applies without a
+     * transaction: every insert then takes a connection of its own from the
+     * pool, so keep this below spring.r2dbc.pool.max-size. A transaction holds
+     * a single connection, so transactional calls always insert one row after
+     * the other.
+     */
+    private int concurrency = 1;
+
+    /**
+     * Emit saved animes in request order; otherwise as soon as each insert
+     * completes. Only matters with a concurrency above 1.
+     */
+    private boolean ordered = true;
+
+    /**
+     * All-or-nothing: one transaction per call, rolled back on the first failure.
+     * Without it every insert commits on its own and a failure leaves earlier rows saved.
+     */
+    private boolean transactional = true;
+}
@@ -6,24 +6,38 @@ import org.springframework.security.authentication.ReactiveAuthenticationManager
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
 import com.sharshag.springwebfluxresearch.service.DevDojoUserDetailsService;
+import com.sharshag.springwebfluxresearch.tenant.TenantWebFilter;
 
 @EnableWebFluxSecurity
 @EnableReactiveMethodSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+            TenancyProperties tenancyProperties) {
+        if (tenancyProperties.isEnabled()) {
+            // after authentication, so the tenant comes from the authenticated user
+            http.addFilterBefore(new TenantWebFilter(tenancyProperties.tenantIds()),
+                SecurityWebFiltersOrder.AUTHORIZATION);
+        }
         return http
             .csrf().disable()
             .authorizeExchange()
             .pathMatchers(HttpMethod.POST, "/animes/**").hasRole("ADMIN")
             .pathMatchers(HttpMethod.PUT, "/animes/**").hasRole("ADMIN")
+            .pathMatchers(HttpMethod.PATCH, "/animes/**").hasRole("ADMIN")
             .pathMatchers(HttpMethod.DELETE, "/animes/**").hasRole("ADMIN")
             .pathMatchers(HttpMethod.GET, "/animes/**").hasRole("USER")
+            .pathMatchers(HttpMethod.GET, "/fn/animes").hasRole("ADMIN")
+            .pathMatchers(HttpMethod.GET, "/fn/animes/**").hasRole("USER")
+            .pathMatchers("/fn/animes/**").hasRole("ADMIN")
+            .pathMatchers(HttpMethod.GET, "/actuator/health/liveness", "/actuator/health/readiness").permitAll()
+            .pathMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
             .pathMatchers("/v3/api-docs/**", "/webjars/swagger-ui/**", "/swagger-ui.html").permitAll()
             .anyExchange().authenticated()
             .and()
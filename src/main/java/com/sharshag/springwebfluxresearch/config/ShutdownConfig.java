@@ -0,0 +1,28 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.shutdown.GracefulShutdown;
+import com.sharshag.springwebfluxresearch.shutdown.InFlightRequests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.shutdown", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ShutdownConfig {
+
+    @Bean
+    public InFlightRequests inFlightRequests(ShutdownProperties shutdownProperties, MeterRegistry meterRegistry) {
+        return new InFlightRequests(shutdownProperties.getRetryAfter(), meterRegistry);
+    }
+
+    @Bean
+    public GracefulShutdown gracefulShutdown(InFlightRequests inFlightRequests,
+            ShutdownProperties shutdownProperties) {
+        return new GracefulShutdown(inFlightRequests,
+            shutdownProperties.getPreStopDelay(),
+            shutdownProperties.getDrainTimeout());
+    }
+}
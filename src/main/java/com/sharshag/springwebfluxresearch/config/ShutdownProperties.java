@@ -0,0 +1,31 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.shutdown")
+public class ShutdownProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long requests keep being served after readiness turned to REFUSING_TRAFFIC;
+     * zero when the platform already waits, e.g. with a preStop hook.
+     */
+    private Duration preStopDelay = Duration.ZERO;
+
+    /**
+     * Longest in-flight requests are waited for before being cancelled; keep it below
+     * spring.lifecycle.timeout-per-shutdown-phase.
+     */
+    private Duration drainTimeout = Duration.ofSeconds(20);
+
+    /**
+     * Retry-After of the 503 sent to requests arriving while draining.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
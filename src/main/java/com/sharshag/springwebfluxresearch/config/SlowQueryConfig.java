@@ -0,0 +1,31 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.slowquery.SlowQueryListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryListener slowQueryListener(SlowQueryProperties slowQueryProperties,
+            ObjectProvider<ConnectionFactory> connectionFactory, MeterRegistry meterRegistry) {
+        // the listener is needed to decorate the connection factory, so the factory is only looked up per plan
+        return new SlowQueryListener(slowQueryProperties.getTables(),
+            slowQueryProperties.getThreshold(),
+            slowQueryProperties.getRetained(),
+            slowQueryProperties.getExplainSampleRatio(),
+            slowQueryProperties.getExplainInterval(),
+            slowQueryProperties.getExplainConcurrency(),
+            slowQueryProperties.getExplainTimeout(),
+            connectionFactory::getObject,
+            meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Statements are timed when their SQL mentions one of these tables.
+     */
+    private List<String> tables = List.of("anime", "devdojo_user");
+
+    /**
+     * Statements whose first row takes at least this long are logged and retained;
+     * streaming the remaining rows does not count, the consumer paces it.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Distinct slow statements kept for the admin endpoint, the slowest win.
+     */
+    private int retained = 50;
+
+    /**
+     * Share of slow executions whose plan is captured.
+     */
+    private double explainSampleRatio = 0.1;
+
+    /**
+     * Minimum time between two plan captures of the same statement.
+     */
+    private Duration explainInterval = Duration.ofMinutes(5);
+
+    /**
+     * Plan captures running at once, each holding a pooled connection; a plan
+     * due while all are busy is skipped until the next interval.
+     */
+    private int explainConcurrency = 1;
+
+    /**
+     * A plan capture taking longer is abandoned.
+     */
+    private Duration explainTimeout = Duration.ofSeconds(10);
+}
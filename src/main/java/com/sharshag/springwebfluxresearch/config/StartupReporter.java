@@ -0,0 +1,59 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs time-to-ready and resident memory once the server accepts requests.
+ * With {@code app.startup.exit-after-ready} the JVM exits right afterwards,
+ * which is what a CDS training run needs (see application-prod.yml).
+ */
+@Slf4j
+@Component
+public class StartupReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+    private final boolean exitAfterReady;
+
+    public StartupReporter(@Value("${app.startup.exit-after-ready:false}") boolean exitAfterReady) {
+        this.exitAfterReady = exitAfterReady;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("ready to serve requests {} ms after JVM start, rss {}", uptime,
+            residentSetSize().map(kb -> kb / 1024 + " MB").orElse("unknown"));
+
+        if (exitAfterReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    private Optional<Long> residentSetSize() {
+        if (!Files.isReadable(PROC_STATUS)) {
+            return Optional.empty();
+        }
+        try {
+            return Files.readAllLines(PROC_STATUS).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                .findFirst();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.stats")
+public class StatsProperties {
+
+    /**
+     * Name lengths per histogram bucket: 10 gives 1-10, 11-20, ...
+     */
+    private int lengthBucketWidth = 10;
+
+    /**
+     * Leading characters that make up a prefix bucket.
+     */
+    private int prefixLength = 1;
+
+    /**
+     * Largest prefix buckets returned.
+     */
+    private int maxPrefixes = 50;
+
+    /**
+     * How long one aggregation is served before the table is scanned again.
+     */
+    private Duration cacheTtl = Duration.ofSeconds(10);
+}
@@ -0,0 +1,75 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+import com.sharshag.springwebfluxresearch.tenant.TenantRoutingConnectionFactory;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.tenancy", name = "enabled", havingValue = "true")
+public class TenancyConfig {
+
+    // tenant ids end up in schema names, cache keys and invalidation payloads
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z][a-z0-9_]{0,62}");
+
+    private static final Option<String> SCHEMA = Option.valueOf("schema");
+
+    @Bean
+    public TenantRoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+            TenancyProperties tenancyProperties, ReplicaRoutingProperties replicaRoutingProperties) {
+        if (replicaRoutingProperties.isEnabled()) {
+            throw new IllegalStateException("app.tenancy and app.r2dbc.replicas cannot be enabled together");
+        }
+
+        int defaultMaxSize = r2dbcProperties.getPool().getMaxSize();
+        Map<String, ConnectionFactory> tenants = new LinkedHashMap<>();
+        tenants.put(TenantContext.DEFAULT_TENANT, ConnectionPools.pool(TenantContext.DEFAULT_TENANT,
+            ConnectionPools.options(r2dbcProperties.getUrl(), r2dbcProperties).build(), r2dbcProperties,
+            defaultMaxSize));
+
+        tenancyProperties.getTenants().forEach((id, tenant) -> {
+            if (!TENANT_ID.matcher(id).matches() || TenantContext.DEFAULT_TENANT.equals(id)) {
+                throw new IllegalStateException("Invalid tenant id: " + id);
+            }
+            ConnectionFactoryOptions options = ConnectionPools.options(r2dbcProperties.getUrl(), r2dbcProperties)
+                .option(SCHEMA, tenancyProperties.schemaOf(id))
+                .build();
+            int maxSize = tenant.getMaxConnections() != null ? tenant.getMaxConnections() : defaultMaxSize;
+            tenants.put(id, ConnectionPools.pool("tenant-" + id, options, r2dbcProperties, maxSize));
+        });
+        return new TenantRoutingConnectionFactory(tenants);
+    }
+
+    /**
+     * Migrates the default schema as configured by spring.flyway, then every
+     * tenant schema with the same scripts and settings.
+     */
+    @Bean
+    public FlywayMigrationStrategy tenantMigrationStrategy(TenancyProperties tenancyProperties) {
+        return flyway -> {
+            flyway.migrate();
+            for (String id : tenancyProperties.getTenants().keySet()) {
+                String schema = tenancyProperties.schemaOf(id);
+                Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .schemas(schema)
+                    .defaultSchema(schema)
+                    .load()
+                    .migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+
+import lombok.Data;
+
+/**
+ * Schema-per-tenant catalogs. The default tenant keeps the schema of
+ * spring.r2dbc.url and owns the user table; every other tenant gets a schema
+ * migrated with the same Flyway scripts and a connection pool of its own.
+ * Replaces the connection factory, so it cannot be combined with
+ * app.r2dbc.replicas yet.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.tenancy")
+public class TenancyProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Tenants besides the default one, by the id stored in devdojo_user.tenant.
+     */
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    @Data
+    public static class Tenant {
+
+        /**
+         * Defaults to anime_&lt;tenant id&gt;.
+         */
+        private String schema;
+
+        /**
+         * Size of this tenant's pool; defaults to spring.r2dbc.pool.max-size.
+         */
+        private Integer maxConnections;
+    }
+
+    /**
+     * The default tenant followed by the configured ones, or the default tenant alone when disabled.
+     */
+    public Set<String> tenantIds() {
+        Set<String> ids = new LinkedHashSet<>();
+        ids.add(TenantContext.DEFAULT_TENANT);
+        if (enabled) {
+            ids.addAll(tenants.keySet());
+        }
+        return ids;
+    }
+
+    public String schemaOf(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        return tenant != null && tenant.getSchema() != null ? tenant.getSchema() : "anime_" + tenantId;
+    }
+}
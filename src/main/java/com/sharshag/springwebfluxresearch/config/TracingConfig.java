@@ -0,0 +1,73 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharshag.springwebfluxresearch.tracing.RecordingSpanExporter;
+import com.sharshag.springwebfluxresearch.tracing.TracingAspect;
+import com.sharshag.springwebfluxresearch.tracing.TracingStatementListener;
+import com.sharshag.springwebfluxresearch.tracing.TracingWebFilter;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "app.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean(destroyMethod = "close")
+    public SdkTracerProvider tracerProvider(TracingProperties tracingProperties) {
+        SdkTracerProviderBuilder builder = SdkTracerProvider.builder()
+            .setResource(Resource.getDefault().merge(Resource.create(
+                Attributes.of(AttributeKey.stringKey("service.name"), "spring-webflux-research"))))
+            .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(tracingProperties.getSampleRatio())));
+
+        switch (tracingProperties.getExporter()) {
+            case MEMORY:
+                builder.addSpanProcessor(BatchSpanProcessor.builder(recordingSpanExporter(tracingProperties)).build());
+                break;
+            case LOGGING_OTLP:
+                builder.addSpanProcessor(BatchSpanProcessor.builder(OtlpJsonLoggingSpanExporter.create()).build());
+                break;
+            default:
+                break;
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracing", name = "exporter", havingValue = "memory")
+    public RecordingSpanExporter recordingSpanExporter(TracingProperties tracingProperties) {
+        return new RecordingSpanExporter(tracingProperties.getMemoryCapacity());
+    }
+
+    @Bean
+    public Tracer tracer(SdkTracerProvider tracerProvider) {
+        return tracerProvider.get("com.sharshag.springwebfluxresearch");
+    }
+
+    @Bean
+    public TracingWebFilter tracingWebFilter(Tracer tracer) {
+        return new TracingWebFilter(tracer);
+    }
+
+    @Bean
+    public TracingAspect tracingAspect(Tracer tracer) {
+        return new TracingAspect(tracer);
+    }
+
+    @Bean
+    public TracingStatementListener tracingStatementListener(Tracer tracer) {
+        return new TracingStatementListener(tracer);
+    }
+}
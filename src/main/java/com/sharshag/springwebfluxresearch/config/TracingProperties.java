@@ -0,0 +1,47 @@
+package com.sharshag.springwebfluxresearch.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+
+    /**
+     * Whether spans are created at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Fraction of new traces that are sampled; requests joining a caller's
+     * trace follow the caller's decision.
+     */
+    private double sampleRatio = 0.05;
+
+    /**
+     * Where finished spans go.
+     */
+    private Exporter exporter = Exporter.NONE;
+
+    /**
+     * Spans kept by the in-memory exporter.
+     */
+    private int memoryCapacity = 10000;
+
+    public enum Exporter {
+        /**
+         * Drop finished spans.
+         */
+        NONE,
+        /**
+         * Keep the most recent spans in a {@code RecordingSpanExporter} bean.
+         */
+        MEMORY,
+        /**
+         * OTLP JSON lines through the {@code io.opentelemetry.exporter.logging.otlp}
+         * logger; point a file appender at it to get an OTLP file.
+         */
+        LOGGING_OTLP
+    }
+}
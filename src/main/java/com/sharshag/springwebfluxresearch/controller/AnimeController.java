@@ -1,22 +1,36 @@
 package com.sharshag.springwebfluxresearch.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import javax.validation.Valid;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 
 import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimeLookup;
+import com.sharshag.springwebfluxresearch.domain.AnimePatch;
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+import com.sharshag.springwebfluxresearch.idempotency.IdempotencyStore;
+import com.sharshag.springwebfluxresearch.service.AnimeExportService;
 import com.sharshag.springwebfluxresearch.service.AnimeService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,6 +53,8 @@ import reactor.core.publisher.Mono;
 public class AnimeController {
     
     private final AnimeService animeService;
+    private final AnimeExportService animeExportService;
+    private final IdempotencyStore idempotencyStore;
 
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Lists all animes", tags = { "animes"}, 
@@ -54,24 +70,77 @@ public class AnimeController {
          return animes;
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Lists all animes with only the given fields, e.g. ?fields=id,name", tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @ResponseStatus(value = HttpStatus.OK)
+    @GetMapping(params = "fields")
+    public Flux<Anime> listAll(@RequestParam List<String> fields) {
+        return animeService.findAll(fields);
+    }
+
+    @Operation(summary = "Finds many animes in one query; send Accept: application/x-ndjson to stream",
+        tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @ResponseStatus(value = HttpStatus.OK)
+    @GetMapping(params = "ids")
+    public Flux<AnimeLookup> findAllByIds(@RequestParam List<Integer> ids) {
+        return animeService.findAllByIds(ids);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Streams the whole catalog as CSV or NDJSON", tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @GetMapping(path = "/export")
+    public Mono<Void> export(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip, ServerHttpResponse response) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+            .filename("animes." + exportFormat.getExtension() + (gzip ? ".gz" : ""))
+            .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.writeWith(animeExportService.export(exportFormat, gzip, response.bufferFactory()));
+    }
+
+    /**
+     * Sends an ETag and answers 304 without a body when If-None-Match still matches.
+     */
     @ResponseStatus(value = HttpStatus.OK)
     @GetMapping(path = "/{id}")
-    public Mono<Anime> findById(@PathVariable int id) {
-        return animeService.findById(id);
+    public Mono<Anime> findById(@PathVariable int id, ServerWebExchange exchange) {
+        return animeService.findById(id)
+            .filter(anime -> !exchange.checkNotModified(etag(anime)));
     }
 
     // @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Mono<Anime> save(@Valid @RequestBody Anime anime) {
-        return animeService.save(anime);
+    public Mono<Anime> save(@Valid @RequestBody Anime anime,
+            @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return animeService.save(anime);
+        }
+        return idempotencyStore.execute(idempotencyKey, "POST /animes", anime, () -> animeService.save(anime));
     }
 
     // @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/batch")
     @ResponseStatus(HttpStatus.CREATED)
-    public Flux<Anime> save(@RequestBody List<Anime> animes) {
-        return animeService.saveAll(animes);
+    public Flux<Anime> save(@RequestBody List<Anime> animes,
+            @RequestHeader(name = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return animeService.saveAll(animes);
+        }
+        return idempotencyStore.execute(idempotencyKey, "POST /animes/batch", animes,
+                () -> animeService.saveAll(animes).collectList())
+            .flatMapIterable(saved -> saved);
     }
 
     @PutMapping("{id}")
@@ -80,6 +149,25 @@ public class AnimeController {
         return animeService.update(anime.withId(id));
     }
 
+    @Operation(summary = "Applies the non-null fields if the version still matches, 409 otherwise",
+        tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @PatchMapping("{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Anime> patch(@PathVariable int id, @Valid @RequestBody AnimePatch patch) {
+        return animeService.patch(id, patch);
+    }
+
+    @Operation(summary = "Applies many versioned partial updates in one transaction", tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @PatchMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<List<Anime>> patchAll(@RequestBody List<AnimePatch> patches) {
+        return animeService.patchAll(patches);
+    }
+
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("{id}")
     public Mono<Void> delete(@PathVariable int id) {
@@ -88,4 +176,9 @@ public class AnimeController {
         
     }
 
+    private static String etag(Anime anime) {
+        String version = anime.getId() + ":" + anime.getVersion() + ":" + anime.getName();
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
 }
\ No newline at end of file
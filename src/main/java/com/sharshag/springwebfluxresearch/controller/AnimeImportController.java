@@ -0,0 +1,68 @@
+package com.sharshag.springwebfluxresearch.controller;
+
+import java.util.Collection;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+import com.sharshag.springwebfluxresearch.importer.ImportJob;
+import com.sharshag.springwebfluxresearch.importer.ImportJobRegistry;
+import com.sharshag.springwebfluxresearch.service.AnimeImportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("animes/import")
+@RequiredArgsConstructor
+public class AnimeImportController {
+
+    private final AnimeImportService animeImportService;
+    private final ImportJobRegistry importJobRegistry;
+
+    /**
+     * Answers 202 with the job and its status resource as soon as the upload
+     * is received; the rows are imported in the background.
+     */
+    @Operation(summary = "Imports a raw CSV or NDJSON body line by line", tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @PostMapping
+    public Mono<ResponseEntity<ImportJob>> importAnimes(@RequestParam(defaultValue = "ndjson") String format,
+            ServerHttpRequest request) {
+        return animeImportService.importAnimes(request.getBody(), ExportFormat.of(format),
+                request.getHeaders().getContentLength())
+            .map(job -> ResponseEntity.accepted()
+                .location(UriComponentsBuilder.fromPath(request.getPath().value())
+                    .path("/{jobId}")
+                    .buildAndExpand(job.getId())
+                    .toUri())
+                .body(job));
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Collection<ImportJob> listJobs() {
+        return importJobRegistry.findAll();
+    }
+
+    @GetMapping("/{jobId}")
+    @ResponseStatus(HttpStatus.OK)
+    public ImportJob findJob(@PathVariable String jobId) {
+        return importJobRegistry.find(jobId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.sharshag.springwebfluxresearch.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sharshag.springwebfluxresearch.domain.AnimeStats;
+import com.sharshag.springwebfluxresearch.service.AnimeStatsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("animes/stats")
+@RequiredArgsConstructor
+public class AnimeStatsController {
+
+    private final AnimeStatsService animeStatsService;
+
+    @Operation(summary = "Catalog size, name-length histogram and prefix buckets", tags = { "animes"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<AnimeStats> stats() {
+        return animeStatsService.getStats();
+    }
+}
@@ -0,0 +1,45 @@
+package com.sharshag.springwebfluxresearch.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sharshag.springwebfluxresearch.eventloop.EventLoopWatchdog;
+import com.sharshag.springwebfluxresearch.eventloop.LoopProbe;
+import com.sharshag.springwebfluxresearch.eventloop.StallEvent;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("admin/event-loops")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.eventloop.monitor", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EventLoopMonitorController {
+
+    private final EventLoopWatchdog eventLoopWatchdog;
+
+    @Operation(summary = "Latest probe latency and queue length of every monitored loop", tags = { "admin"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public List<LoopProbe> listLoops() {
+        return eventLoopWatchdog.getProbes();
+    }
+
+    @Operation(summary = "Recent stalls with the stack of the blocked loop thread", tags = { "admin"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @GetMapping("/stalls")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StallEvent> listStalls() {
+        return eventLoopWatchdog.getStalls();
+    }
+}
@@ -0,0 +1,45 @@
+package com.sharshag.springwebfluxresearch.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.sharshag.springwebfluxresearch.slowquery.SlowQuery;
+import com.sharshag.springwebfluxresearch.slowquery.SlowQueryListener;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("admin/slow-queries")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryController {
+
+    private final SlowQueryListener slowQueryListener;
+
+    @Operation(summary = "Slowest statements with parameter shapes and sampled plans", tags = { "admin"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public List<SlowQuery> listSlowQueries() {
+        return slowQueryListener.getSlowQueries();
+    }
+
+    @Operation(summary = "Forgets the recorded slow statements", tags = { "admin"},
+        security = @SecurityRequirement(name = "Basic Authentication")
+    )
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void reset() {
+        slowQueryListener.reset();
+    }
+}
@@ -2,22 +2,30 @@ package com.sharshag.springwebfluxresearch.domain;
 
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.With;
 
+/**
+ * Properties left out of a {@code ?fields=} projection are null and not written.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @With
 @Table("anime")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Anime {
     
     @Id
@@ -25,5 +33,12 @@ public class Anime {
 
     @NotNull
     @NotEmpty(message =  "The name of this anime cannot be empty")
+    @Size(max = 255)
     private String name;
+
+    /**
+     * Bumped on every update; a stale value makes the write fail with 409.
+     */
+    @Version
+    private Long version;
 }
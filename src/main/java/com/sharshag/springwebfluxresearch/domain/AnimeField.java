@@ -0,0 +1,31 @@
+package com.sharshag.springwebfluxresearch.domain;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Properties of {@link Anime} a caller can ask for with {@code ?fields=};
+ * each is read from the column of the same name.
+ */
+public enum AnimeField {
+
+    ID("id"),
+    NAME("name"),
+    VERSION("version");
+
+    private final String column;
+
+    AnimeField(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static Optional<AnimeField> of(String name) {
+        return Arrays.stream(values())
+            .filter(field -> field.column.equalsIgnoreCase(name.trim()))
+            .findFirst();
+    }
+}
@@ -0,0 +1,34 @@
+package com.sharshag.springwebfluxresearch.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Value;
+
+/**
+ * Outcome for one id of a bulk read; missing ids carry no anime instead of
+ * failing the whole response with a 404.
+ */
+@Value
+public class AnimeLookup {
+
+    int id;
+    Anime anime;
+
+    @JsonCreator
+    public static AnimeLookup of(@JsonProperty("id") int id, @JsonProperty("anime") Anime anime) {
+        return new AnimeLookup(id, anime);
+    }
+
+    public static AnimeLookup found(Anime anime) {
+        return new AnimeLookup(anime.getId(), anime);
+    }
+
+    public static AnimeLookup missing(int id) {
+        return new AnimeLookup(id, null);
+    }
+
+    public boolean isFound() {
+        return anime != null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.sharshag.springwebfluxresearch.domain;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of an anime: null fields are left unchanged and the version
+ * must match the stored one for the update to apply.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AnimePatch {
+
+    /**
+     * Required in batch patches; single patches take the id from the path.
+     */
+    private Integer id;
+
+    @NotNull(message = "The version being patched is required")
+    private Long version;
+
+    @Size(min = 1, max = 255)
+    private String name;
+}
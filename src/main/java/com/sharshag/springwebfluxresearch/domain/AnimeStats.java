@@ -0,0 +1,23 @@
+package com.sharshag.springwebfluxresearch.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class AnimeStats {
+
+    long total;
+    Integer minNameLength;
+    Integer maxNameLength;
+    List<Bucket> nameLengths;
+    List<Bucket> prefixes;
+    Instant computedAt;
+
+    @Value
+    public static class Bucket {
+        String label;
+        long count;
+    }
+}
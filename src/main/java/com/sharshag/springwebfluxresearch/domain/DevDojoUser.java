@@ -24,6 +24,7 @@ public class DevDojoUser implements UserDetails {
     private String username;
     private String password;
     private String authorities;
+    private String tenant;
 
 
     @Override
@@ -0,0 +1,164 @@
+package com.sharshag.springwebfluxresearch.eventloop;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cheap production replacement for BlockHound: every sample interval a no-op
+ * task is queued on each loop and the time until it runs is recorded. A probe
+ * that is still queued after the stall threshold means something is holding
+ * the loop, so the loop thread's stack is captured while it is still stuck.
+ * Sampling runs on its own daemon thread so it keeps working while the loops
+ * it watches are blocked.
+ */
+@Slf4j
+public class EventLoopWatchdog implements SmartLifecycle, AutoCloseable {
+
+    private final List<LoopProbe> probes;
+    private final Duration sampleInterval;
+    private final long stallThresholdNanos;
+    private final int retainedStalls;
+    private final Map<LoopProbe, Timer> latencyTimers = new HashMap<>();
+    private final Map<LoopProbe, Counter> stallCounters = new HashMap<>();
+    private final Deque<StallEvent> stalls = new ArrayDeque<>();
+    private ScheduledExecutorService sampler;
+    private ScheduledFuture<?> task;
+
+    public EventLoopWatchdog(List<LoopProbe> probes, Duration sampleInterval, Duration stallThreshold,
+            int retainedStalls, MeterRegistry meterRegistry) {
+        this.probes = List.copyOf(probes);
+        this.sampleInterval = sampleInterval;
+        this.stallThresholdNanos = stallThreshold.toNanos();
+        this.retainedStalls = retainedStalls;
+
+        for (LoopProbe probe : this.probes) {
+            latencyTimers.put(probe, Timer.builder("eventloop.task.latency")
+                .description("Time a probe task waited before the loop ran it")
+                .tag("loop", probe.getName())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+            stallCounters.put(probe, Counter.builder("eventloop.stalls")
+                .description("Probes that waited longer than the stall threshold")
+                .tag("loop", probe.getName())
+                .register(meterRegistry));
+            Gauge.builder("eventloop.pending.tasks", probe, LoopProbe::getPendingTasks)
+                .description("Tasks queued on the loop, -1 when unknown")
+                .tag("loop", probe.getName())
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eventloop-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = sampleInterval.toNanos();
+        task = sampler.scheduleWithFixedDelay(this::sample, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void sample() {
+        long now = System.nanoTime();
+        for (LoopProbe probe : probes) {
+            if (probe.isOutstanding()) {
+                long outstanding = probe.outstandingNanos(now);
+                if (outstanding >= stallThresholdNanos && probe.markStalled()) {
+                    recordStall(probe, outstanding);
+                }
+                continue;
+            }
+            try {
+                probe.submit(now, () -> probeRan(probe));
+            } catch (RejectedExecutionException e) {
+                // the loop is shutting down
+                probe.abandon();
+            }
+        }
+    }
+
+    private void probeRan(LoopProbe probe) {
+        boolean wasStalled = probe.isStalled();
+        long latency = probe.complete(System.nanoTime());
+        latencyTimers.get(probe).record(latency, TimeUnit.NANOSECONDS);
+        if (wasStalled) {
+            log.warn("{} recovered after {} ms", probe.getName(), TimeUnit.NANOSECONDS.toMillis(latency));
+        }
+    }
+
+    private void recordStall(LoopProbe probe, long outstandingNanos) {
+        Thread thread = probe.getThread();
+        List<String> stackTrace = thread == null
+            ? Collections.emptyList()
+            : Arrays.stream(thread.getStackTrace()).map(StackTraceElement::toString).collect(Collectors.toList());
+        StallEvent stall = new StallEvent(probe.getName(), probe.getThreadName(), Instant.now(),
+            TimeUnit.NANOSECONDS.toMillis(outstandingNanos), probe.getPendingTasks(), stackTrace);
+
+        stallCounters.get(probe).increment();
+        synchronized (stalls) {
+            stalls.addFirst(stall);
+            while (stalls.size() > retainedStalls) {
+                stalls.removeLast();
+            }
+        }
+        log.warn("{} ({}) stalled for {} ms with {} pending tasks at\n\t{}", stall.getLoop(), stall.getThread(),
+            stall.getBlockedForMillis(), stall.getPendingTasks(), String.join("\n\t", stackTrace));
+    }
+
+    public List<LoopProbe> getProbes() {
+        return probes;
+    }
+
+    /**
+     * Most recent stalls first.
+     */
+    public List<StallEvent> getStalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (sampler != null) {
+            task.cancel(false);
+            sampler.shutdownNow();
+            sampler = null;
+            task = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return sampler != null;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        probes.forEach(LoopProbe::close);
+    }
+}
@@ -0,0 +1,153 @@
+package com.sharshag.springwebfluxresearch.eventloop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * One monitored loop: at most one probe task is in flight at a time, and the
+ * thread that last ran it is remembered so a stall can be attributed to it.
+ */
+public class LoopProbe {
+
+    private static final LongSupplier UNKNOWN_PENDING_TASKS = () -> -1;
+
+    private final String name;
+    private final Executor executor;
+    private final LongSupplier pendingTasks;
+    private final Disposable resources;
+    private volatile long submittedAt;
+    private volatile boolean stallReported;
+    private volatile Thread thread;
+    private volatile long lastLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private volatile long stalls;
+
+    public LoopProbe(String name, Executor executor, LongSupplier pendingTasks, Disposable resources) {
+        this.name = name;
+        this.executor = executor;
+        this.pendingTasks = pendingTasks;
+        this.resources = resources;
+    }
+
+    /**
+     * One probe per executor of the group; Netty's single threaded executors
+     * also report their queue length.
+     */
+    public static List<LoopProbe> forEventLoopGroup(String prefix, EventLoopGroup group) {
+        List<LoopProbe> probes = new ArrayList<>();
+        for (EventExecutor executor : group) {
+            LongSupplier pendingTasks = executor instanceof SingleThreadEventExecutor
+                ? ((SingleThreadEventExecutor) executor)::pendingTasks
+                : UNKNOWN_PENDING_TASKS;
+            probes.add(new LoopProbe(prefix + "-" + probes.size(), executor, pendingTasks, Disposables.disposed()));
+        }
+        return probes;
+    }
+
+    /**
+     * Workers of a parallel scheduler are assigned its executors round-robin, so
+     * creating one worker per executor pins a probe to each of them.
+     */
+    public static List<LoopProbe> forScheduler(String prefix, Scheduler scheduler, int parallelism) {
+        List<LoopProbe> probes = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            Scheduler.Worker worker = scheduler.createWorker();
+            probes.add(new LoopProbe(prefix + "-" + i, worker::schedule, UNKNOWN_PENDING_TASKS, worker));
+        }
+        return probes;
+    }
+
+    boolean isOutstanding() {
+        return submittedAt != 0;
+    }
+
+    long outstandingNanos(long now) {
+        long submitted = submittedAt;
+        return submitted == 0 ? 0 : now - submitted;
+    }
+
+    void submit(long now, Runnable probe) {
+        submittedAt = now;
+        executor.execute(probe);
+    }
+
+    /**
+     * Runs on the probed loop; returns how long the probe waited in its queue.
+     */
+    long complete(long now) {
+        long latency = now - submittedAt;
+        thread = Thread.currentThread();
+        lastLatencyNanos = latency;
+        if (latency > maxLatencyNanos) {
+            maxLatencyNanos = latency;
+        }
+        stallReported = false;
+        submittedAt = 0;
+        return latency;
+    }
+
+    void abandon() {
+        submittedAt = 0;
+    }
+
+    /**
+     * Flags the outstanding probe as stalled; false when this stall was already reported.
+     */
+    boolean markStalled() {
+        if (stallReported) {
+            return false;
+        }
+        stallReported = true;
+        stalls++;
+        return true;
+    }
+
+    void close() {
+        resources.dispose();
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getThreadName() {
+        Thread current = thread;
+        return current == null ? null : current.getName();
+    }
+
+    /**
+     * Tasks queued on the loop, -1 when the executor does not expose it.
+     */
+    public long getPendingTasks() {
+        return pendingTasks.getAsLong();
+    }
+
+    public long getLastLatencyMicros() {
+        return lastLatencyNanos / 1000;
+    }
+
+    public long getMaxLatencyMicros() {
+        return maxLatencyNanos / 1000;
+    }
+
+    public long getStalls() {
+        return stalls;
+    }
+
+    public boolean isStalled() {
+        return stallReported;
+    }
+}
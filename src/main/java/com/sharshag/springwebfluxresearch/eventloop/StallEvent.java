@@ -0,0 +1,21 @@
+package com.sharshag.springwebfluxresearch.eventloop;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * A loop that did not run its probe within the stall threshold, with the
+ * stack of its thread at the moment the stall was detected.
+ */
+@Value
+public class StallEvent {
+
+    String loop;
+    String thread;
+    Instant detectedAt;
+    long blockedForMillis;
+    long pendingTasks;
+    List<String> stackTrace;
+}
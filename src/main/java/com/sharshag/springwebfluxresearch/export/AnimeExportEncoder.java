@@ -0,0 +1,168 @@
+package com.sharshag.springwebfluxresearch.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns a stream of rows into one {@link DataBuffer} per chunk of rows so the
+ * response is written as the cursor advances. With gzip every chunk is
+ * sync-flushed through a single deflater, which keeps the output one valid
+ * gzip member while still emitting bytes chunk by chunk.
+ */
+public class AnimeExportEncoder {
+
+    private static final byte[] CSV_HEADER = "id,name\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte NEW_LINE = '\n';
+
+    private final ObjectMapper objectMapper;
+    private final int rowsPerChunk;
+
+    public AnimeExportEncoder(ObjectMapper objectMapper, int rowsPerChunk) {
+        this.objectMapper = objectMapper;
+        this.rowsPerChunk = rowsPerChunk;
+    }
+
+    public Flux<DataBuffer> encode(Flux<Anime> animes, ExportFormat format, boolean gzip,
+            DataBufferFactory bufferFactory) {
+
+        return Flux.using(() -> new ChunkWriter(format, gzip, bufferFactory),
+            writer -> animes.buffer(rowsPerChunk)
+                .map(writer::write)
+                .startWith(Mono.fromCallable(writer::header).flux())
+                .concatWith(Mono.fromCallable(writer::finish))
+                .filter(this::releaseIfEmpty),
+            ChunkWriter::discard);
+    }
+
+    private boolean releaseIfEmpty(DataBuffer buffer) {
+        if (buffer.readableByteCount() > 0) {
+            return true;
+        }
+        DataBufferUtils.release(buffer);
+        return false;
+    }
+
+    private void writeRow(Anime anime, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.CSV) {
+            out.write(String.valueOf(anime.getId()).getBytes(StandardCharsets.UTF_8));
+            out.write(',');
+            out.write(csvField(anime.getName()).getBytes(StandardCharsets.UTF_8));
+        } else {
+            out.write(objectMapper.writeValueAsBytes(anime));
+        }
+        out.write(NEW_LINE);
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private class ChunkWriter {
+
+        private final ExportFormat format;
+        private final boolean gzip;
+        private final DataBufferFactory bufferFactory;
+        private final SwitchableOutputStream target = new SwitchableOutputStream();
+        private OutputStream out;
+
+        ChunkWriter(ExportFormat format, boolean gzip, DataBufferFactory bufferFactory) {
+            this.format = format;
+            this.gzip = gzip;
+            this.bufferFactory = bufferFactory;
+        }
+
+        DataBuffer header() {
+            return into(out -> {
+                if (format == ExportFormat.CSV) {
+                    out.write(CSV_HEADER);
+                }
+            });
+        }
+
+        DataBuffer write(List<Anime> chunk) {
+            return into(out -> {
+                for (Anime anime : chunk) {
+                    writeRow(anime, format, out);
+                }
+            });
+        }
+
+        DataBuffer finish() {
+            return into(OutputStream::close);
+        }
+
+        void discard() {
+            target.current = null;
+            try {
+                if (out != null) {
+                    out.close();
+                }
+            } catch (IOException ignored) {
+                // the subscriber is gone, only the deflater needs releasing
+            }
+        }
+
+        private DataBuffer into(ChunkBody body) {
+            DataBuffer buffer = bufferFactory.allocateBuffer();
+            target.current = buffer.asOutputStream();
+            try {
+                if (out == null) {
+                    // created while a buffer is attached so the gzip header lands in the first chunk
+                    out = gzip ? new GZIPOutputStream(target, true) : target;
+                }
+                body.writeTo(out);
+                out.flush();
+                return buffer;
+            } catch (IOException e) {
+                DataBufferUtils.release(buffer);
+                throw new UncheckedIOException(e);
+            } finally {
+                target.current = null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkBody {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static class SwitchableOutputStream extends OutputStream {
+
+        private OutputStream current;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (current != null) {
+                current.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (current != null) {
+                current.write(b, off, len);
+            }
+        }
+    }
+}
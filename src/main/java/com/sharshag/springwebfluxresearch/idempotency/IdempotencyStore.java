@@ -0,0 +1,21 @@
+package com.sharshag.springwebfluxresearch.idempotency;
+
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs an action at most once per idempotency key and replays its result to
+ * every later (or concurrent) request carrying the same key.
+ */
+public interface IdempotencyStore {
+
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * @param key the client supplied key, scoped by the store to the current principal
+     * @param operation identifies the endpoint so a key cannot be replayed against another one
+     * @param request the request payload; reusing a key with a different payload is rejected
+     */
+    <T> Mono<T> execute(String key, String operation, Object request, Supplier<Mono<T>> action);
+}
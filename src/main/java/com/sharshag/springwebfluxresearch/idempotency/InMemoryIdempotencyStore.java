@@ -0,0 +1,152 @@
+package com.sharshag.springwebfluxresearch.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.config.IdempotencyProperties;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the cached result of every keyed request in a bounded map. The first
+ * request for a key stores a cached {@link Mono} before it subscribes, so a
+ * concurrent duplicate subscribes to the same in-flight write instead of
+ * starting another one. Failed actions are forgotten so the client can retry.
+ * <p>
+ * Entries are kept in insertion order and share one TTL, so the expired ones
+ * are always at the head: each call drops them from there, and a full store
+ * evicts its eldest entry. Payloads are compared by the SHA-256 of their JSON.
+ */
+@Component
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    /**
+     * Guarded by itself.
+     */
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final ObjectMapper objectMapper;
+
+    public InMemoryIdempotencyStore(IdempotencyProperties idempotencyProperties, ObjectMapper objectMapper) {
+        this.ttlNanos = idempotencyProperties.getTtl().toNanos();
+        this.maxEntries = idempotencyProperties.getMaxEntries();
+        this.objectMapper = objectMapper;
+        this.entries = new LinkedHashMap<>() {
+            // Entry alone would name Map.Entry in here
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InMemoryIdempotencyStore.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, String operation, Object request, Supplier<Mono<T>> action) {
+        return currentPrincipal().flatMap(principal -> {
+            String scopedKey = principal + ':' + key;
+            byte[] fingerprint;
+            try {
+                fingerprint = fingerprint(operation, request);
+            } catch (JsonProcessingException e) {
+                return Mono.error(new IllegalArgumentException("Request cannot be fingerprinted", e));
+            }
+
+            Entry entry;
+            synchronized (entries) {
+                long now = System.nanoTime();
+                expire(now);
+                entry = entries.get(scopedKey);
+                if (entry == null) {
+                    entry = new Entry(scopedKey, fingerprint, now + ttlNanos, (Supplier<Mono<Object>>) (Supplier<?>) action);
+                    entries.put(scopedKey, entry);
+                }
+            }
+
+            if (!MessageDigest.isEqual(entry.fingerprint, fingerprint)) {
+                return Mono.error(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request"));
+            }
+            return (Mono<T>) entry.result;
+        });
+    }
+
+    private void forget(Entry entry) {
+        synchronized (entries) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Drops the expired entries; they form a prefix because expiry times grow
+     * with insertion order, so this stops at the first live one.
+     */
+    private void expire(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().isExpired(now)) {
+            iterator.remove();
+        }
+    }
+
+    private byte[] fingerprint(String operation, Object request) throws JsonProcessingException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+        digest.update(operation.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        return digest.digest(objectMapper.writeValueAsBytes(request));
+    }
+
+    private Mono<String> currentPrincipal() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .map(Authentication::getName)
+            .defaultIfEmpty("anonymous");
+    }
+
+    private class Entry {
+
+        private final String key;
+        private final byte[] fingerprint;
+        private final long expiresAt;
+        private final Mono<Object> result;
+
+        Entry(String key, byte[] fingerprint, long expiresAt, Supplier<Mono<Object>> action) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+            this.result = Mono.defer(action)
+                .doOnError(e -> forget(this))
+                .cache();
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
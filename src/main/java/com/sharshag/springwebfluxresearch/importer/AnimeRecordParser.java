@@ -0,0 +1,86 @@
+package com.sharshag.springwebfluxresearch.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+
+/**
+ * Parses a single line of an upload. CSV files may carry an {@code id,name}
+ * or {@code name} header and use the same quoting the export writes; ids and
+ * versions are always ignored because imports only insert, so an export
+ * re-imports as new animes.
+ */
+public class AnimeRecordParser {
+
+    private final ObjectMapper objectMapper;
+
+    public AnimeRecordParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isHeader(String line, long lineNumber, ExportFormat format) {
+        if (format != ExportFormat.CSV || lineNumber != 1) {
+            return false;
+        }
+        String normalized = line.trim().toLowerCase();
+        return normalized.equals("id,name") || normalized.equals("name");
+    }
+
+    public Anime parse(String line, ExportFormat format) {
+        Anime anime = format == ExportFormat.CSV ? parseCsv(line) : parseJson(line);
+        return anime.withId(null).withVersion(null);
+    }
+
+    private Anime parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, Anime.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Anime parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() > 2) {
+            throw new IllegalArgumentException("Expected 1 or 2 columns but found " + fields.size());
+        }
+        return Anime.builder()
+            .name(fields.get(fields.size() - 1))
+            .build();
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sharshag.springwebfluxresearch.importer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Live progress of one upload; counters are updated by the import pipeline
+ * while the status resource reads them. A job is RECEIVING while the body
+ * arrives and RUNNING while its rows are imported.
+ */
+public class ImportJob {
+
+    public enum Status { RECEIVING, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final ExportFormat format;
+    private final long totalBytes;
+    private final String rejectFile;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final Sinks.Empty<Void> finished = Sinks.empty();
+    private volatile Status status = Status.RECEIVING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public ImportJob(String id, ExportFormat format, long totalBytes, String rejectFile) {
+        this.id = id;
+        this.format = format;
+        this.totalBytes = totalBytes;
+        this.rejectFile = rejectFile;
+    }
+
+    public void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void addRowsImported(long rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    public void addRowsRejected(long rows) {
+        rowsRejected.addAndGet(rows);
+    }
+
+    public void received() {
+        status = Status.RUNNING;
+    }
+
+    public void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+        finished.tryEmitEmpty();
+    }
+
+    public void fail(Throwable throwable) {
+        finishedAt = Instant.now();
+        error = throwable.getMessage();
+        status = Status.FAILED;
+        finished.tryEmitEmpty();
+    }
+
+    /**
+     * Emits the job once it completed or failed.
+     */
+    public Mono<ImportJob> whenFinished() {
+        return finished.asMono().thenReturn(this);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Content-Length of the upload, -1 when the client streamed without one.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public Double getProgress() {
+        if (totalBytes <= 0) {
+            return null;
+        }
+        return Math.min(1.0, (double) bytesRead.get() / totalBytes);
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public double getRowsPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return rowsRead.get() * 1000.0 / millis;
+    }
+
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,49 @@
+package com.sharshag.springwebfluxresearch.importer;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.sharshag.springwebfluxresearch.config.ImportProperties;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class ImportJobRegistry {
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ImportProperties importProperties;
+
+    public void register(ImportJob job) {
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+    }
+
+    public Optional<ImportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public Collection<ImportJob> findAll() {
+        return jobs.values().stream()
+            .sorted(Comparator.comparing(ImportJob::getStartedAt).reversed())
+            .collect(Collectors.toList());
+    }
+
+    private void evictFinishedJobs() {
+        int overflow = jobs.size() - importProperties.getRetainedJobs();
+        if (overflow <= 0) {
+            return;
+        }
+        jobs.values().stream()
+            .filter(job -> job.getStatus() != ImportJob.Status.RUNNING)
+            .sorted(Comparator.comparing(ImportJob::getStartedAt))
+            .limit(overflow)
+            .forEach(job -> jobs.remove(job.getId(), job));
+    }
+}
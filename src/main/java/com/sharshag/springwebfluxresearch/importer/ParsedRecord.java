@@ -0,0 +1,26 @@
+package com.sharshag.springwebfluxresearch.importer;
+
+import com.sharshag.springwebfluxresearch.domain.Anime;
+
+import lombok.Value;
+
+@Value
+public class ParsedRecord {
+
+    long lineNumber;
+    String line;
+    Anime anime;
+    String error;
+
+    public static ParsedRecord valid(long lineNumber, String line, Anime anime) {
+        return new ParsedRecord(lineNumber, line, anime, null);
+    }
+
+    public static ParsedRecord rejected(long lineNumber, String line, String error) {
+        return new ParsedRecord(lineNumber, line, null, error);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.sharshag.springwebfluxresearch.importer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Tab separated {@code line number, reason, original line} entries for every
+ * rejected row. The file is only created once the first row is rejected and
+ * all file IO runs on the bounded elastic scheduler.
+ */
+public class RejectFile {
+
+    private final Path path;
+    private BufferedWriter writer;
+
+    public RejectFile(Path path) {
+        this.path = path;
+    }
+
+    public Mono<Void> write(List<ParsedRecord> records) {
+        return Mono.<Void>fromRunnable(() -> append(records))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Void> close() {
+        return Mono.<Void>fromRunnable(this::closeWriter)
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private synchronized void append(List<ParsedRecord> records) {
+        try {
+            if (writer == null) {
+                Files.createDirectories(path.getParent());
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            }
+            for (ParsedRecord record : records) {
+                writer.write(Long.toString(record.getLineNumber()));
+                writer.write('\t');
+                writer.write(record.getError().replace('\t', ' ').replace('\n', ' '));
+                writer.write('\t');
+                writer.write(record.getLine());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
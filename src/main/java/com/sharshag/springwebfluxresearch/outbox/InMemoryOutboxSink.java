@@ -0,0 +1,44 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the most recent events in memory, for tests and local runs. Older
+ * events, and all of them on restart, are gone although the relay already
+ * deleted them from the outbox.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+    private final int capacity;
+
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Mono<Void> deliver(List<OutboxEvent> batch) {
+        return Mono.fromRunnable(() -> {
+            synchronized (events) {
+                events.addAll(batch);
+                while (events.size() > capacity) {
+                    events.removeFirst();
+                }
+            }
+        });
+    }
+
+    /**
+     * Oldest first.
+     */
+    public List<OutboxEvent> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+}
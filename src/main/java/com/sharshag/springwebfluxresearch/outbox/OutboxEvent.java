@@ -0,0 +1,24 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+/**
+ * One committed change of an anime, as captured by the anime_outbox trigger.
+ */
+@Value
+public class OutboxEvent {
+
+    long id;
+    int animeId;
+    /**
+     * INSERT, UPDATE or DELETE.
+     */
+    String type;
+    /**
+     * The row after the change, or before it for deletes, as JSON.
+     */
+    String payload;
+    Instant createdAt;
+}
@@ -0,0 +1,107 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps anime_outbox bounded on nodes that do not relay it. The trigger
+ * records every change whether or not a relay runs, so every tick deletes the
+ * events older than the retention, batch by batch per tenant until a batch
+ * comes back short. SKIP LOCKED lets pruners on several nodes, and a relay
+ * enabled elsewhere, share the table.
+ * <p>
+ * Meters: {@code outbox.pruned} for the events deleted without being delivered.
+ */
+@Slf4j
+public class OutboxPruner implements SmartLifecycle {
+
+    private static final String PRUNE = "DELETE FROM anime_outbox WHERE id IN ("
+        + "SELECT id FROM anime_outbox WHERE created_at < :cutoff ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED)";
+
+    private final DatabaseClient databaseClient;
+    private final List<String> tenants;
+    private final Clock clock;
+    private final Duration interval;
+    private final Duration retention;
+    private final int batchSize;
+    private final Counter pruned;
+    private volatile Disposable task;
+
+    public OutboxPruner(DatabaseClient databaseClient, Collection<String> tenants, Clock clock, Duration interval,
+            Duration retention, int batchSize, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.tenants = List.copyOf(tenants);
+        this.clock = clock;
+        this.interval = interval;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pruned = Counter.builder("outbox.pruned")
+            .description("Outbox events deleted undelivered because no relay runs")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> prune()
+                .onErrorResume(e -> {
+                    log.warn("outbox pruning failed, retrying on the next tick: {}", e.toString());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Prunes every tenant and emits how many events were deleted.
+     */
+    Mono<Long> prune() {
+        OffsetDateTime cutoff = OffsetDateTime.now(clock).minus(retention);
+        return Flux.fromIterable(tenants)
+            .concatMap(tenant -> pruneTenant(cutoff).contextWrite(TenantContext.withTenant(tenant)))
+            .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> pruneTenant(OffsetDateTime cutoff) {
+        return pruneBatch(cutoff)
+            .expand(rows -> rows == batchSize ? pruneBatch(cutoff) : Mono.empty())
+            .reduce(0L, (sum, rows) -> sum + rows);
+    }
+
+    private Mono<Integer> pruneBatch(OffsetDateTime cutoff) {
+        return databaseClient.sql(PRUNE)
+            .bind("cutoff", cutoff)
+            .bind("batchSize", batchSize)
+            .fetch()
+            .rowsUpdated()
+            .doOnNext(pruned::increment);
+    }
+
+    @Override
+    public void stop() {
+        if (task != null) {
+            task.dispose();
+            task = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return task != null;
+    }
+}
@@ -0,0 +1,159 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Row;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drains anime_outbox into an {@link OutboxSink}. Each worker claims a batch
+ * with DELETE ... FOR UPDATE SKIP LOCKED and hands it to the sink inside the
+ * same transaction, so a failed delivery rolls the rows back for the next
+ * poll, and workers on this and other nodes never claim the same row. Events
+ * of one batch reach the sink in id order. Ids come from a BIGSERIAL when the
+ * trigger inserts the row, not at commit, so a transaction that commits late
+ * can deliver after events with higher ids; across parallel workers only
+ * per-batch order holds. With several tenants every poll drains each tenant's
+ * outbox in turn.
+ */
+@Slf4j
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final String CLAIM = "DELETE FROM anime_outbox WHERE id IN ("
+        + "SELECT id FROM anime_outbox ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED) "
+        + "RETURNING id, anime_id, event_type, payload, created_at";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final OutboxSink sink;
+    private final List<String> tenants;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final int parallelism;
+    private final Counter relayed;
+    private final Counter failures;
+    private final Timer lag;
+    private final Timer batchDuration;
+    private volatile Disposable task;
+
+    public OutboxRelay(DatabaseClient databaseClient, TransactionalOperator transactionalOperator, OutboxSink sink,
+            Collection<String> tenants, Duration pollInterval, int batchSize, int parallelism, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.sink = sink;
+        this.tenants = List.copyOf(tenants);
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.relayed = Counter.builder("outbox.relay.events")
+            .description("Outbox events delivered to the sink")
+            .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+            .description("Batches rolled back because the sink or the claim failed")
+            .register(meterRegistry);
+        this.lag = Timer.builder("outbox.relay.lag")
+            .description("Time from the change committing to its delivery")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.batchDuration = Timer.builder("outbox.relay.batch")
+            .description("Claim, delivery and commit of one batch")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(Duration.ZERO, pollInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> drain()
+                .onErrorResume(e -> {
+                    log.warn("outbox relay failed, retrying on the next poll: {}", e.toString());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Drains every tenant and emits how many events were delivered.
+     */
+    Mono<Long> drain() {
+        return Flux.fromIterable(tenants)
+            .concatMap(tenant -> drainTenant().contextWrite(TenantContext.withTenant(tenant)))
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Runs the workers until each one claims a batch that is not full.
+     */
+    private Mono<Long> drainTenant() {
+        return Flux.range(0, parallelism)
+            .flatMap(worker -> relayBatch()
+                .expand(count -> count == batchSize ? relayBatch() : Mono.empty()))
+            .reduce(0L, Long::sum);
+    }
+
+    Mono<Integer> relayBatch() {
+        long started = System.nanoTime();
+        return databaseClient.sql(CLAIM)
+            .bind("batchSize", batchSize)
+            .map(OutboxRelay::toEvent)
+            .all()
+            .sort(Comparator.comparingLong(OutboxEvent::getId))
+            .collectList()
+            .flatMap(events -> events.isEmpty() ? Mono.just(events) : sink.deliver(events).thenReturn(events))
+            .as(transactionalOperator::transactional)
+            .doOnError(e -> failures.increment())
+            // counted once the claim committed: a rolled back batch is delivered again
+            .doOnNext(events -> {
+                if (!events.isEmpty()) {
+                    recordDelivered(events, System.nanoTime() - started);
+                }
+            })
+            .map(List::size);
+    }
+
+    private void recordDelivered(List<OutboxEvent> events, long elapsedNanos) {
+        Instant now = Instant.now();
+        batchDuration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        relayed.increment(events.size());
+        events.forEach(event -> lag.record(Duration.between(event.getCreatedAt(), now)));
+    }
+
+    private static OutboxEvent toEvent(Row row) {
+        return new OutboxEvent(row.get("id", Long.class),
+            row.get("anime_id", Integer.class),
+            row.get("event_type", String.class),
+            row.get("payload", String.class),
+            row.get("created_at", OffsetDateTime.class).toInstant());
+    }
+
+    @Override
+    public void stop() {
+        if (task != null) {
+            task.dispose();
+            task = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return task != null;
+    }
+}
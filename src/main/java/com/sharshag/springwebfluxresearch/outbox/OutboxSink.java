@@ -0,0 +1,15 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination of relayed events. A batch is removed from the outbox only once
+ * {@link #deliver} completes, so a sink sees every event at least once and
+ * must tolerate redelivery after a failure.
+ */
+public interface OutboxSink {
+
+    Mono<Void> deliver(List<OutboxEvent> events);
+}
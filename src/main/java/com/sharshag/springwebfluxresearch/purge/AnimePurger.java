@@ -0,0 +1,149 @@
+package com.sharshag.springwebfluxresearch.purge;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hard-deletes soft-deleted animes once they are older than the retention.
+ * Every tick removes at most one batch per tenant, which caps the purge rate
+ * at batch size per interval, and the tick is skipped while more requests
+ * than the quiet threshold are in flight, so the purge's locks and index
+ * maintenance stay out of peak traffic. SKIP LOCKED lets purgers on several
+ * nodes share the backlog.
+ * <p>
+ * Meters: {@code anime.purge.backlog} with the soft-deleted rows still stored
+ * per tenant, {@code anime.purge.rows} for the rows purged and
+ * {@code anime.purge.deferred} for ticks skipped because of load.
+ */
+@Slf4j
+public class AnimePurger implements SmartLifecycle {
+
+    private static final String PURGE = "DELETE FROM anime WHERE id IN ("
+        + "SELECT id FROM anime WHERE deleted_at < :cutoff ORDER BY deleted_at LIMIT :batchSize FOR UPDATE SKIP LOCKED)";
+
+    private static final String BACKLOG = "SELECT count(*) FROM anime WHERE deleted_at IS NOT NULL";
+
+    private final DatabaseClient databaseClient;
+    private final List<String> tenants;
+    private final IntSupplier inFlightRequests;
+    private final Clock clock;
+    private final Duration interval;
+    private final Duration retention;
+    private final int batchSize;
+    private final int quietThreshold;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> backlog = new ConcurrentHashMap<>();
+    private final Map<String, Counter> purged = new ConcurrentHashMap<>();
+    private final Counter deferred;
+    private volatile Disposable task;
+
+    public AnimePurger(DatabaseClient databaseClient, Collection<String> tenants, IntSupplier inFlightRequests,
+            Clock clock, Duration interval, Duration retention, int batchSize, int quietThreshold,
+            MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.tenants = List.copyOf(tenants);
+        this.inFlightRequests = inFlightRequests;
+        this.clock = clock;
+        this.interval = interval;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.quietThreshold = quietThreshold;
+        this.meterRegistry = meterRegistry;
+        this.deferred = Counter.builder("anime.purge.deferred")
+            .description("Purge ticks skipped because requests were in flight")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> purge()
+                .onErrorResume(e -> {
+                    log.warn("anime purge failed, retrying on the next tick: {}", e.toString());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Purges one batch of every tenant unless the application is busy, and
+     * emits how many rows were removed.
+     */
+    Mono<Long> purge() {
+        if (inFlightRequests.getAsInt() > quietThreshold) {
+            deferred.increment();
+            return Mono.just(0L);
+        }
+        OffsetDateTime cutoff = OffsetDateTime.now(clock).minus(retention);
+        return Flux.fromIterable(tenants)
+            .concatMap(tenant -> purgeTenant(tenant, cutoff).contextWrite(TenantContext.withTenant(tenant)))
+            .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> purgeTenant(String tenant, OffsetDateTime cutoff) {
+        return databaseClient.sql(PURGE)
+            .bind("cutoff", cutoff)
+            .bind("batchSize", batchSize)
+            .fetch()
+            .rowsUpdated()
+            .map(Integer::longValue)
+            .doOnNext(rows -> purgedCounter(tenant).increment(rows))
+            .flatMap(rows -> databaseClient.sql(BACKLOG)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one()
+                .doOnNext(remaining -> backlogGauge(tenant).set(remaining))
+                .thenReturn(rows));
+    }
+
+    private Counter purgedCounter(String tenant) {
+        return purged.computeIfAbsent(tenant, t -> Counter.builder("anime.purge.rows")
+            .description("Soft-deleted animes removed for good")
+            .tag("tenant", t)
+            .register(meterRegistry));
+    }
+
+    private AtomicLong backlogGauge(String tenant) {
+        return backlog.computeIfAbsent(tenant, t -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("anime.purge.backlog", value, AtomicLong::get)
+                .description("Soft-deleted animes waiting to be purged")
+                .tag("tenant", t)
+                .register(meterRegistry);
+            return value;
+        });
+    }
+
+    @Override
+    public void stop() {
+        if (task != null) {
+            task.dispose();
+            task = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return task != null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import org.reactivestreams.Publisher;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+
+/**
+ * Base class for {@link Statement} decorators. Binding methods return
+ * {@code this} so the fluent API keeps going through the decorator.
+ */
+public abstract class DelegatingStatement implements Statement, Wrapped<Statement> {
+
+    private final Statement delegate;
+
+    protected DelegatingStatement(Statement delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Statement unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return delegate.execute();
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+}
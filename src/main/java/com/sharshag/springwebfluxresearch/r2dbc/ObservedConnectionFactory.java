@@ -0,0 +1,221 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.sharshag.springwebfluxresearch.r2dbc.StatementListener.StatementObservation;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decorates a {@link ConnectionFactory} so every {@link Statement} created on
+ * its connections reports to the given {@link StatementListener}s. A statement
+ * counts as finished once the execution and each of its results have been
+ * consumed, so timings include row streaming and not just the first response;
+ * the arrival of the first row is reported separately.
+ */
+public class ObservedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, DisposableBean {
+
+    private final ConnectionFactory delegate;
+    private final List<StatementListener> listeners;
+
+    public ObservedConnectionFactory(ConnectionFactory delegate, List<StatementListener> listeners) {
+        this.delegate = delegate;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.from(delegate.create()).map(ObservedConnection::new);
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean) {
+            ((DisposableBean) delegate).destroy();
+        } else if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    private class ObservedConnection extends DelegatingConnection {
+
+        ObservedConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new ObservedStatement(super.createStatement(sql), sql);
+        }
+    }
+
+    private class ObservedStatement extends DelegatingStatement {
+
+        private final String sql;
+        private final List<Map<Object, Object>> bindings = new ArrayList<>();
+        private Map<Object, Object> current = new LinkedHashMap<>();
+
+        ObservedStatement(Statement delegate, String sql) {
+            super(delegate);
+            this.sql = sql;
+        }
+
+        @Override
+        public Statement add() {
+            bindings.add(current);
+            current = new LinkedHashMap<>();
+            return super.add();
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            current.put(index, value);
+            return super.bind(index, value);
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            current.put(name, value);
+            return super.bind(name, value);
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            current.put(index, type);
+            return super.bindNull(index, type);
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            current.put(name, type);
+            return super.bindNull(name, type);
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            List<Map<Object, Object>> executed = new ArrayList<>(bindings);
+            if (!current.isEmpty()) {
+                executed.add(current);
+            }
+            StatementExecution execution = new StatementExecution(sql, Collections.unmodifiableList(executed));
+            Publisher<? extends Result> results = super.execute();
+
+            return Flux.deferContextual(context -> {
+                List<StatementObservation> observations = new ArrayList<>(listeners.size());
+                for (StatementListener listener : listeners) {
+                    observations.add(listener.beforeExecute(execution, context));
+                }
+                Completion completion = new Completion(observations);
+                return Flux.<Result>from(results)
+                    .map(result -> completion.track(result))
+                    .doOnError(completion::fail)
+                    .doOnComplete(completion::release)
+                    .doOnCancel(completion::release);
+            });
+        }
+    }
+
+    /**
+     * Reference count of the execution plus each emitted result; observations
+     * complete when it drops to zero or on the first error.
+     */
+    private static class Completion {
+
+        private final List<StatementObservation> observations;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile boolean firstRowSeen;
+
+        Completion(List<StatementObservation> observations) {
+            this.observations = observations;
+        }
+
+        Result track(Result result) {
+            pending.incrementAndGet();
+            return new ObservedResult(result, this);
+        }
+
+        void firstRow() {
+            // a plain read per row once seen; a duplicate call from a race is harmless
+            if (!firstRowSeen) {
+                firstRowSeen = true;
+                observations.forEach(StatementObservation::firstRow);
+            }
+        }
+
+        void release() {
+            if (pending.decrementAndGet() == 0) {
+                finish(null);
+            }
+        }
+
+        void fail(Throwable error) {
+            finish(error);
+        }
+
+        private void finish(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                observations.forEach(observation -> observation.afterExecute(error));
+            }
+        }
+    }
+
+    private static class ObservedResult implements Result {
+
+        private final Result delegate;
+        private final Completion completion;
+
+        ObservedResult(Result delegate, Completion completion) {
+            this.delegate = delegate;
+            this.completion = completion;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            return Flux.from(delegate.getRowsUpdated())
+                .doOnNext(count -> completion.firstRow())
+                .doOnError(completion::fail)
+                .doOnComplete(completion::release)
+                .doOnCancel(completion::release);
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.<T>from(delegate.map(mappingFunction))
+                .doOnNext(row -> completion.firstRow())
+                .doOnError(completion::fail)
+                .doOnComplete(completion::release)
+                .doOnCancel(completion::release);
+        }
+    }
+}
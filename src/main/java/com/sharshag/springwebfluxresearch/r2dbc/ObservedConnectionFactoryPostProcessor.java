@@ -0,0 +1,31 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Wraps {@link ConnectionFactory} beans in an {@link ObservedConnectionFactory}
+ * when at least one {@link StatementListener} bean is present.
+ */
+public class ObservedConnectionFactoryPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<StatementListener> listeners;
+
+    public ObservedConnectionFactoryPostProcessor(ObjectProvider<StatementListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ConnectionFactory) || bean instanceof ObservedConnectionFactory) {
+            return bean;
+        }
+        List<StatementListener> resolved = listeners.orderedStream().collect(Collectors.toList());
+        return resolved.isEmpty() ? bean : new ObservedConnectionFactory((ConnectionFactory) bean, resolved);
+    }
+}
@@ -0,0 +1,97 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends pipelines marked with {@link RoutingContext#readOnly} to the healthy
+ * replica with the fewest outstanding connections and everything else,
+ * including transactions, to the primary. A principal that just wrote keeps
+ * reading from the primary for the configured read-your-writes window.
+ */
+@Slf4j
+public class ReadWriteRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final ConnectionFactory primary;
+    private final List<ReplicaConnectionFactory> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingConnectionFactory(ConnectionFactory primary, List<ReplicaConnectionFactory> replicas,
+            ReadYourWritesTracker readYourWritesTracker) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+
+        Map<String, ConnectionFactory> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.getName(), replica));
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> currentPrincipal()
+            .map(principal -> route(RoutingContext.isReadOnly(context), principal)));
+    }
+
+    private Object route(boolean readOnly, Optional<String> principal) {
+        if (!readOnly) {
+            principal.ifPresent(readYourWritesTracker::markWrite);
+            return PRIMARY;
+        }
+        if (principal.map(readYourWritesTracker::isSticky).orElse(false)) {
+            return PRIMARY;
+        }
+        return leastOutstandingReplica()
+            .map(ReplicaConnectionFactory::getName)
+            .orElse(PRIMARY);
+    }
+
+    Optional<ReplicaConnectionFactory> leastOutstandingReplica() {
+        return replicas.stream()
+            .filter(ReplicaConnectionFactory::isHealthy)
+            .min(Comparator.comparingInt(ReplicaConnectionFactory::getOutstanding));
+    }
+
+    private Mono<Optional<String>> currentPrincipal() {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .map(Authentication::getName)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty());
+    }
+
+    public List<ReplicaConnectionFactory> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void destroy() {
+        dispose(primary);
+        replicas.forEach(replica -> dispose(replica.getDelegate()));
+    }
+
+    private void dispose(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof Disposable) {
+            ((Disposable) connectionFactory).dispose();
+        }
+    }
+}
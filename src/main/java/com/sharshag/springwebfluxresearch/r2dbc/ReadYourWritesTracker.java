@@ -0,0 +1,44 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers when each principal last wrote so that its reads stay on the
+ * primary until replicas had a chance to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWritesTracker(Duration window, LongSupplier clock) {
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+    }
+
+    public void markWrite(String principal) {
+        if (windowNanos > 0) {
+            lastWrites.put(principal, clock.getAsLong());
+        }
+    }
+
+    public boolean isSticky(String principal) {
+        Long lastWrite = lastWrites.get(principal);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (clock.getAsLong() - lastWrite < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(principal, lastWrite);
+        return false;
+    }
+}
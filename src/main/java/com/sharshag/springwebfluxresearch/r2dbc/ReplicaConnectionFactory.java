@@ -0,0 +1,90 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ValidationDepth;
+import reactor.core.publisher.Mono;
+
+/**
+ * Replica target that counts the connections it has handed out and not yet
+ * had closed, which is what least-outstanding-requests balancing compares.
+ */
+public class ReplicaConnectionFactory implements ConnectionFactory {
+
+    private final String name;
+    private final ConnectionFactory delegate;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean healthy = true;
+
+    public ReplicaConnectionFactory(String name, ConnectionFactory delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            outstanding.incrementAndGet();
+            return Mono.from(delegate.create())
+                .<Connection>map(TrackedConnection::new)
+                .doOnError(e -> outstanding.decrementAndGet())
+                .doOnCancel(outstanding::decrementAndGet);
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    public Mono<Boolean> validate() {
+        return Mono.usingWhen(delegate.create(),
+            connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+            Connection::close);
+    }
+
+    public ConnectionFactory getDelegate() {
+        return delegate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    private class TrackedConnection extends DelegatingConnection {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        TrackedConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Mono.from(super.close())
+                .doFinally(signal -> {
+                    if (released.compareAndSet(false, true)) {
+                        outstanding.decrementAndGet();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.time.Duration;
+
+import org.springframework.context.SmartLifecycle;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically validates every replica and takes failing ones out of the
+ * read rotation until they answer again.
+ */
+@Slf4j
+public class ReplicaHealthMonitor implements SmartLifecycle {
+
+    private final ReadWriteRoutingConnectionFactory routingConnectionFactory;
+    private final Duration interval;
+    private final Duration timeout;
+    private volatile Disposable task;
+
+    public ReplicaHealthMonitor(ReadWriteRoutingConnectionFactory routingConnectionFactory, Duration interval,
+            Duration timeout) {
+        this.routingConnectionFactory = routingConnectionFactory;
+        this.interval = interval;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void start() {
+        task = Flux.interval(Duration.ZERO, interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> Flux.fromIterable(routingConnectionFactory.getReplicas())
+                .flatMap(this::check)
+                .then())
+            .subscribe();
+    }
+
+    Mono<Boolean> check(ReplicaConnectionFactory replica) {
+        return replica.validate()
+            .timeout(timeout)
+            .onErrorReturn(false)
+            .defaultIfEmpty(false)
+            .doOnNext(healthy -> {
+                if (healthy != replica.isHealthy()) {
+                    log.warn("replica {} is now {}", replica.getName(), healthy ? "healthy" : "unhealthy");
+                }
+                replica.setHealthy(healthy);
+            });
+    }
+
+    @Override
+    public void stop() {
+        if (task != null) {
+            task.dispose();
+            task = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return task != null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Reactor {@link Context} markers consumed by {@link ReadWriteRoutingConnectionFactory}.
+ * Pipelines without a marker are routed to the primary.
+ */
+public final class RoutingContext {
+
+    private static final String READ_ONLY = RoutingContext.class.getName() + ".READ_ONLY";
+
+    private RoutingContext() {
+    }
+
+    public static Context readOnly(Context context) {
+        return context.put(READ_ONLY, Boolean.TRUE);
+    }
+
+    public static boolean isReadOnly(ContextView context) {
+        return context.getOrDefault(READ_ONLY, Boolean.FALSE);
+    }
+}
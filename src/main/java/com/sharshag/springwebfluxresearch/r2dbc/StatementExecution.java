@@ -0,0 +1,18 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Value;
+
+/**
+ * A statement as it is sent to the database: its SQL and one map of bound
+ * values (index or name to value, {@code null} values as their type) per
+ * binding set.
+ */
+@Value
+public class StatementExecution {
+
+    String sql;
+    List<Map<Object, Object>> bindings;
+}
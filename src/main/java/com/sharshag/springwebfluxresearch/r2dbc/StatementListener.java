@@ -0,0 +1,35 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import reactor.util.context.ContextView;
+
+/**
+ * Callback for every statement executed through an {@link ObservedConnectionFactory}.
+ */
+public interface StatementListener {
+
+    /**
+     * Called when the statement's execution is subscribed to, with the
+     * subscriber's Reactor context. The returned observation is completed
+     * once the statement's results have been consumed, cancelled or failed.
+     */
+    StatementObservation beforeExecute(StatementExecution execution, ContextView context);
+
+    @FunctionalInterface
+    interface StatementObservation {
+
+        StatementObservation NOOP = error -> { };
+
+        /**
+         * Called once, when the first row or update count arrives from the
+         * database and before it is handed on. Everything after it is paced
+         * by the consumer as much as by the database.
+         */
+        default void firstRow() {
+        }
+
+        /**
+         * @param error the failure, {@code null} when the statement completed or was cancelled
+         */
+        void afterExecute(Throwable error);
+    }
+}
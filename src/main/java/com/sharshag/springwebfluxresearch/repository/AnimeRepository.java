@@ -1,9 +1,115 @@
 package com.sharshag.springwebfluxresearch.repository;
 
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import com.sharshag.springwebfluxresearch.domain.Anime;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads only see live animes: the finders inherited from
+ * {@link ReactiveCrudRepository} are redeclared to skip rows with a
+ * deleted_at, and {@link #deleteById} only sets it. The Publisher and entity
+ * overloads delegate to those, so no inherited method reads or hard-deletes
+ * a row behind their back. AnimePurger removes the rows for good.
+ */
 public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer> {
-    
+
+    @Override
+    @Query("SELECT * FROM anime WHERE deleted_at IS NULL")
+    Flux<Anime> findAll();
+
+    @Override
+    @Query("SELECT * FROM anime WHERE id = :id AND deleted_at IS NULL")
+    Mono<Anime> findById(Integer id);
+
+    @Override
+    @Query("SELECT * FROM anime WHERE id IN (:ids) AND deleted_at IS NULL")
+    Flux<Anime> findAllById(Iterable<Integer> ids);
+
+    @Override
+    @Query("SELECT EXISTS (SELECT 1 FROM anime WHERE id = :id AND deleted_at IS NULL)")
+    Mono<Boolean> existsById(Integer id);
+
+    @Override
+    @Query("SELECT count(*) FROM anime WHERE deleted_at IS NULL")
+    Mono<Long> count();
+
+    @Override
+    default Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    default Flux<Anime> findAllById(Publisher<Integer> ids) {
+        return Flux.from(ids).buffer().concatMap(this::findAllById);
+    }
+
+    @Override
+    default Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    /**
+     * Soft delete; deleting an id that is missing or already deleted does nothing.
+     * The version is bumped too, so a versioned save that read the row before
+     * the delete fails with an optimistic locking error instead of updating
+     * the hidden row.
+     */
+    @Override
+    @Modifying
+    @Query("UPDATE anime SET deleted_at = now(), version = version + 1 WHERE id = :id AND deleted_at IS NULL")
+    Mono<Void> deleteById(Integer id);
+
+    @Override
+    default Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    default Mono<Void> delete(Anime anime) {
+        return deleteById(anime.getId());
+    }
+
+    @Override
+    default Mono<Void> deleteAllById(Iterable<? extends Integer> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    default Mono<Void> deleteAll(Iterable<? extends Anime> animes) {
+        return Flux.fromIterable(animes).concatMap(this::delete).then();
+    }
+
+    @Override
+    default Mono<Void> deleteAll(Publisher<? extends Anime> animes) {
+        return Flux.from(animes).concatMap(this::delete).then();
+    }
+
+    @Override
+    @Modifying
+    @Query("UPDATE anime SET deleted_at = now(), version = version + 1 WHERE deleted_at IS NULL")
+    Mono<Void> deleteAll();
+
+    /**
+     * Applies the non-null fields if the row is still at {@code version}; empty when
+     * the id does not exist or was updated concurrently.
+     */
+    @Query("UPDATE anime SET name = COALESCE(:name, name), version = version + 1"
+        + " WHERE id = :id AND version = :version AND deleted_at IS NULL RETURNING id, name, version")
+    Mono<Anime> patch(int id, long version, String name);
+
+    /**
+     * Same as {@link #patch} for many rows in one statement; the arrays are
+     * parallel and only rows whose version matched are returned.
+     */
+    @Query("UPDATE anime AS a SET name = COALESCE(p.name, a.name), version = a.version + 1"
+        + " FROM (SELECT unnest(CAST(:ids AS int[])) AS id, unnest(CAST(:versions AS bigint[])) AS version,"
+        + " unnest(CAST(:names AS varchar[])) AS name) AS p"
+        + " WHERE a.id = p.id AND a.version = p.version AND a.deleted_at IS NULL RETURNING a.id, a.name, a.version")
+    Flux<Anime> patchAll(Integer[] ids, Long[] versions, String[] names);
 }
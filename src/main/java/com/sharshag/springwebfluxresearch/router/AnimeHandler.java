@@ -0,0 +1,145 @@
+package com.sharshag.springwebfluxresearch.router;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimePatch;
+import com.sharshag.springwebfluxresearch.idempotency.IdempotencyStore;
+import com.sharshag.springwebfluxresearch.service.AnimeService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional counterpart of {@code AnimeController}. Authorization is decided
+ * by the route matchers in {@code SecurityConfig} and bodies are checked with
+ * the shared {@link Validator} directly, so no method-security proxy or
+ * argument-resolver reflection sits on the request path.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnimeHandler {
+
+    private static final ParameterizedTypeReference<List<Anime>> ANIME_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private static final ParameterizedTypeReference<List<AnimePatch>> PATCH_LIST =
+        new ParameterizedTypeReference<>() {
+        };
+
+    private final AnimeService animeService;
+    private final IdempotencyStore idempotencyStore;
+    private final Validator validator;
+
+    public Mono<ServerResponse> listAll(ServerRequest request) {
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(animeService.findAll(), Anime.class);
+    }
+
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        return animeService.findById(id(request))
+            .flatMap(anime -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(anime));
+    }
+
+    public Mono<ServerResponse> save(ServerRequest request) {
+        return request.bodyToMono(Anime.class)
+            .switchIfEmpty(missingBody())
+            .map(this::validate)
+            .flatMap(anime -> idempotencyKey(request)
+                .map(key -> idempotencyStore.execute(key, "POST /animes", anime, () -> animeService.save(anime)))
+                .orElseGet(() -> animeService.save(anime)))
+            .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(saved));
+    }
+
+    public Mono<ServerResponse> saveBatch(ServerRequest request) {
+        return request.bodyToMono(ANIME_LIST)
+            .switchIfEmpty(missingBody())
+            .flatMap(animes -> {
+                Flux<Anime> saved = idempotencyKey(request)
+                    .map(key -> idempotencyStore.execute(key, "POST /animes/batch", animes,
+                            () -> animeService.saveAll(animes).collectList())
+                        .flatMapIterable(list -> list))
+                    .orElseGet(() -> animeService.saveAll(animes));
+                return ServerResponse.status(HttpStatus.CREATED)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(saved, Anime.class);
+            });
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        int id = id(request);
+        return request.bodyToMono(Anime.class)
+            .switchIfEmpty(missingBody())
+            .map(this::validate)
+            .flatMap(anime -> animeService.update(anime.withId(id)))
+            .then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> patch(ServerRequest request) {
+        int id = id(request);
+        return request.bodyToMono(AnimePatch.class)
+            .switchIfEmpty(missingBody())
+            .map(this::validate)
+            .flatMap(patch -> animeService.patch(id, patch))
+            .flatMap(patched -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(patched));
+    }
+
+    public Mono<ServerResponse> patchBatch(ServerRequest request) {
+        return request.bodyToMono(PATCH_LIST)
+            .switchIfEmpty(missingBody())
+            .flatMap(animeService::patchAll)
+            .flatMap(patched -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(patched));
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return animeService.deleteById(id(request))
+            .then(ServerResponse.noContent().build());
+    }
+
+    /**
+     * An empty body would otherwise complete the handler without a response.
+     */
+    private static <T> Mono<T> missingBody() {
+        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is missing"));
+    }
+
+    private <T> T validate(T body) {
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; ")));
+        }
+        return body;
+    }
+
+    private int id(ServerRequest request) {
+        try {
+            return Integer.parseInt(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id");
+        }
+    }
+
+    private Optional<String> idempotencyKey(ServerRequest request) {
+        return request.headers().header(IdempotencyStore.IDEMPOTENCY_KEY_HEADER).stream().findFirst();
+    }
+}
@@ -0,0 +1,33 @@
+package com.sharshag.springwebfluxresearch.router;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.DELETE;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.PATCH;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.PUT;
+import static org.springframework.web.reactive.function.server.RequestPredicates.path;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+public class AnimeRouter {
+
+    public static final String BASE_PATH = "/fn/animes";
+
+    @Bean
+    public RouterFunction<ServerResponse> animeRoutes(AnimeHandler animeHandler) {
+        return RouterFunctions.nest(path(BASE_PATH), RouterFunctions
+            .route(GET(""), animeHandler::listAll)
+            .andRoute(GET("/{id}"), animeHandler::findById)
+            .andRoute(POST(""), animeHandler::save)
+            .andRoute(POST("/batch"), animeHandler::saveBatch)
+            .andRoute(PUT("/{id}"), animeHandler::update)
+            .andRoute(PATCH("/batch"), animeHandler::patchBatch)
+            .andRoute(PATCH("/{id}"), animeHandler::patch)
+            .andRoute(DELETE("/{id}"), animeHandler::delete));
+    }
+}
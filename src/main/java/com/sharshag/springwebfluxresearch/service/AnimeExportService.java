@@ -0,0 +1,45 @@
+package com.sharshag.springwebfluxresearch.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.config.ExportProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.export.AnimeExportEncoder;
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+import com.sharshag.springwebfluxresearch.r2dbc.RoutingContext;
+
+import reactor.core.publisher.Flux;
+
+@Service
+public class AnimeExportService {
+
+    private static final String EXPORT_QUERY = "SELECT id, name, version FROM anime WHERE deleted_at IS NULL ORDER BY id";
+
+    private final DatabaseClient databaseClient;
+    private final ExportProperties exportProperties;
+    private final AnimeExportEncoder animeExportEncoder;
+
+    public AnimeExportService(DatabaseClient databaseClient, ExportProperties exportProperties,
+            ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.exportProperties = exportProperties;
+        this.animeExportEncoder = new AnimeExportEncoder(objectMapper, exportProperties.getRowsPerChunk());
+    }
+
+    public Flux<DataBuffer> export(ExportFormat format, boolean gzip, DataBufferFactory bufferFactory) {
+        return animeExportEncoder.encode(streamAll(), format, gzip, bufferFactory);
+    }
+
+    private Flux<Anime> streamAll() {
+        return databaseClient.sql(EXPORT_QUERY)
+            .filter((statement, next) -> next.execute(statement.fetchSize(exportProperties.getFetchSize())))
+            .map((row, metadata) -> new Anime(row.get("id", Integer.class), row.get("name", String.class),
+                row.get("version", Long.class)))
+            .all()
+            .contextWrite(RoutingContext::readOnly);
+    }
+}
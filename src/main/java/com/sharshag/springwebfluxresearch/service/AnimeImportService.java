@@ -0,0 +1,176 @@
+package com.sharshag.springwebfluxresearch.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.config.ImportProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+import com.sharshag.springwebfluxresearch.importer.AnimeRecordParser;
+import com.sharshag.springwebfluxresearch.importer.ImportJob;
+import com.sharshag.springwebfluxresearch.importer.ImportJobRegistry;
+import com.sharshag.springwebfluxresearch.importer.ParsedRecord;
+import com.sharshag.springwebfluxresearch.importer.RejectFile;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+
+/**
+ * Imports an upload line by line: the body is spooled to disk, then split into
+ * lines, each line is parsed and validated on its own, and valid rows are
+ * written through {@link AnimeService#saveAll} in batches with a bounded
+ * number of batches in flight. Heap use is bounded by the batch size and the
+ * longest line, not by the size of the upload.
+ * <p>
+ * The job is answered as soon as the upload is on disk and the rows are
+ * imported in the background with the caller's Reactor context, so the
+ * uploader can follow it on the status resource. The body has to be read
+ * first: once the response is sent the server discards what is left of it.
+ */
+@Slf4j
+@Service
+public class AnimeImportService {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final AnimeService animeService;
+    private final ImportJobRegistry importJobRegistry;
+    private final ImportProperties importProperties;
+    private final Validator validator;
+    private final AnimeRecordParser animeRecordParser;
+    private final StringDecoder lineDecoder;
+    private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    public AnimeImportService(AnimeService animeService, ImportJobRegistry importJobRegistry,
+            ImportProperties importProperties, Validator validator, ObjectMapper objectMapper) {
+        this.animeService = animeService;
+        this.importJobRegistry = importJobRegistry;
+        this.importProperties = importProperties;
+        this.validator = validator;
+        this.animeRecordParser = new AnimeRecordParser(objectMapper);
+        this.lineDecoder = StringDecoder.textPlainOnly(List.of("\n"), true);
+        this.lineDecoder.setMaxInMemorySize(importProperties.getMaxLineLength());
+    }
+
+    /**
+     * Registers the job, spools the body and completes with the job while its
+     * rows are still being imported; {@link ImportJob#whenFinished} tells when
+     * the import is over.
+     */
+    public Mono<ImportJob> importAnimes(Flux<DataBuffer> body, ExportFormat format, long contentLength) {
+        return Mono.deferContextual(context -> {
+            String id = new UUID(ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong()).toString();
+            Path rejectPath = importProperties.getRejectDirectory().resolve(id + ".rejects");
+            Path upload = importProperties.getUploadDirectory().resolve(id + ".upload");
+            ImportJob job = new ImportJob(id, format, contentLength, rejectPath.toString());
+            importJobRegistry.register(job);
+
+            Flux<DataBuffer> countedBody = body.doOnNext(buffer -> job.addBytesRead(buffer.readableByteCount()));
+
+            return Mono.fromCallable(() -> Files.createDirectories(upload.getParent()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(DataBufferUtils.write(countedBody, upload))
+                .doOnSuccess(written -> {
+                    job.received();
+                    // detached from the request, which ends with the 202
+                    importUpload(job, upload, rejectPath, format)
+                        .contextWrite(context)
+                        .subscribe();
+                })
+                .onErrorResume(e -> {
+                    log.error("upload of import {} failed", id, e);
+                    job.fail(e);
+                    return deleteUpload(upload);
+                })
+                .thenReturn(job);
+        });
+    }
+
+    private Mono<Void> importUpload(ImportJob job, Path upload, Path rejectPath, ExportFormat format) {
+        Flux<DataBuffer> spooled = DataBufferUtils.read(upload, bufferFactory, READ_BUFFER_SIZE);
+        return Flux.usingWhen(Mono.fromSupplier(() -> new RejectFile(rejectPath)),
+                rejects -> lineDecoder.decode(spooled, ResolvableType.forClass(String.class), null, Collections.emptyMap())
+                    .index((index, line) -> Tuples.of(index + 1, stripCarriageReturn(line)))
+                    .filter(numbered -> StringUtils.hasText(numbered.getT2())
+                        && !animeRecordParser.isHeader(numbered.getT2(), numbered.getT1(), format))
+                    .map(numbered -> parse(numbered.getT1(), numbered.getT2(), format))
+                    .doOnNext(record -> job.rowRead())
+                    .buffer(importProperties.getBatchSize())
+                    .flatMap(batch -> writeBatch(batch, job, rejects), importProperties.getPipelineDepth()),
+                RejectFile::close)
+            .then(deleteUpload(upload))
+            .then(Mono.<Void>fromRunnable(job::complete))
+            .onErrorResume(e -> {
+                log.error("import {} failed", job.getId(), e);
+                return deleteUpload(upload)
+                    .onErrorResume(deleteFailed -> Mono.empty())
+                    .then(Mono.fromRunnable(() -> job.fail(e)));
+            });
+    }
+
+    private Mono<Void> deleteUpload(Path upload) {
+        return Mono.fromCallable(() -> Files.deleteIfExists(upload))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    private ParsedRecord parse(long lineNumber, String line, ExportFormat format) {
+        try {
+            Anime anime = animeRecordParser.parse(line, format);
+            Set<ConstraintViolation<Anime>> violations = validator.validate(anime);
+            if (!violations.isEmpty()) {
+                return ParsedRecord.rejected(lineNumber, line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; ")));
+            }
+            return ParsedRecord.valid(lineNumber, line, anime);
+        } catch (IllegalArgumentException e) {
+            return ParsedRecord.rejected(lineNumber, line, e.getMessage());
+        }
+    }
+
+    private Mono<Void> writeBatch(List<ParsedRecord> batch, ImportJob job, RejectFile rejects) {
+        List<Anime> valid = batch.stream()
+            .filter(ParsedRecord::isValid)
+            .map(ParsedRecord::getAnime)
+            .collect(Collectors.toList());
+        List<ParsedRecord> rejected = batch.stream()
+            .filter(record -> !record.isValid())
+            .collect(Collectors.toList());
+
+        Mono<Void> imported = valid.isEmpty() ? Mono.empty() : animeService.saveAll(valid)
+            .count()
+            .doOnNext(job::addRowsImported)
+            .then();
+        Mono<Void> rejectedWritten = rejected.isEmpty() ? Mono.empty() : rejects.write(rejected)
+            .doOnSuccess(done -> job.addRowsRejected(rejected.size()));
+
+        return Mono.when(imported, rejectedWritten);
+    }
+
+    private String stripCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+}
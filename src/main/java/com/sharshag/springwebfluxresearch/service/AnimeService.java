@@ -1,13 +1,31 @@
 package com.sharshag.springwebfluxresearch.service;
 
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.sharshag.springwebfluxresearch.cache.AnimeCache;
+import com.sharshag.springwebfluxresearch.config.SaveAllProperties;
 import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimeField;
+import com.sharshag.springwebfluxresearch.domain.AnimeLookup;
+import com.sharshag.springwebfluxresearch.domain.AnimePatch;
+import com.sharshag.springwebfluxresearch.r2dbc.RoutingContext;
 import com.sharshag.springwebfluxresearch.repository.AnimeRepository;
 
 import io.netty.util.internal.StringUtil;
@@ -18,44 +36,278 @@ import reactor.core.publisher.Mono;
 @Service
 @RequiredArgsConstructor
 public class AnimeService {
+
+    public static final int MAX_BULK_IDS = 1000;
+
+    /**
+     * Patches sent to the database per UPDATE statement.
+     */
+    public static final int PATCH_CHUNK_SIZE = 500;
     
     private final AnimeRepository animeRepository;
+    private final AnimeCache animeCache;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final SaveAllProperties saveAllProperties;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * One query per requested field set, built once; the SQL it renders is the same
+     * every time, so the driver keeps reusing its prepared statement.
+     */
+    private final Map<Set<AnimeField>, Query> projections = new ConcurrentHashMap<>();
 
     public Flux<Anime> findAll() {
-        return animeRepository.findAll();
+        return animeRepository.findAll()
+            .contextWrite(RoutingContext::readOnly);
+    }
+
+    /**
+     * Lists all animes selecting only the columns of the requested fields; the
+     * other properties are left null.
+     */
+    public Flux<Anime> findAll(List<String> fields) {
+        Set<AnimeField> requested = EnumSet.noneOf(AnimeField.class);
+        for (String name : fields) {
+            if (name.isBlank()) {
+                continue;
+            }
+            Optional<AnimeField> field = AnimeField.of(name);
+            if (field.isEmpty()) {
+                return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field: " + name));
+            }
+            requested.add(field.get());
+        }
+        if (requested.isEmpty()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "No fields requested"));
+        }
+        Query query = projections.computeIfAbsent(requested, AnimeService::projection);
+        return r2dbcEntityTemplate.select(query, Anime.class)
+            .contextWrite(RoutingContext::readOnly);
+    }
+
+    static Query projection(Set<AnimeField> fields) {
+        return Query.query(Criteria.where("deleted_at").isNull())
+            .columns(fields.stream().map(AnimeField::getColumn).toArray(String[]::new));
     }
 
+    /**
+     * Loads through the primary, not a replica: a miss right after an eviction
+     * would otherwise cache a row a lagging replica has not updated yet, and no
+     * later invalidation would remove it. Hits never reach the database.
+     */
     public Mono<Anime> findById(int id) {
+        return animeCache.get(id, () -> animeRepository.findById(id))
+            .switchIfEmpty(monoResponseStatusNotFoundException());
+    }
+
+    /**
+     * Resolves all ids with one IN query; found animes are emitted as rows arrive
+     * and the ids that matched nothing follow once the query completes.
+     */
+    public Flux<AnimeLookup> findAllByIds(List<Integer> ids) {
+        Set<Integer> requested = new LinkedHashSet<>(ids);
+        if (requested.isEmpty()) {
+            return Flux.empty();
+        }
+        if (requested.size() > MAX_BULK_IDS) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + MAX_BULK_IDS + " ids per request"));
+        }
+        return Flux.defer(() -> {
+                Set<Integer> missing = new LinkedHashSet<>(requested);
+                return animeRepository.findAllById(requested)
+                    .doOnNext(anime -> missing.remove(anime.getId()))
+                    .map(AnimeLookup::found)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(missing).map(AnimeLookup::missing)));
+            })
+            .contextWrite(RoutingContext::readOnly);
+    }
+
+    private Mono<Anime> findByIdOrNotFound(int id) {
         return animeRepository.findById(id)
             .switchIfEmpty(monoResponseStatusNotFoundException())
         . log();
     }
 
     public <T> Mono<T> monoResponseStatusNotFoundException() {
-        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found"));
+        return Mono.error(notFound());
     }
 
+    /**
+     * Creates the anime, or replaces it like {@link #update} when it carries an id:
+     * saving an id without a version would otherwise insert a row with that id.
+     */
     public Mono<Anime> save(Anime anime) {
-        Mono<Anime> save = animeRepository.save(anime);
-        return save;
+        if (anime.getId() != null) {
+            return replace(anime);
+        }
+        return animeRepository.save(anime);
     }
 
+    /**
+     * Replaces the anime; a version in the request is checked against the stored
+     * one, without it the update overwrites whatever is stored.
+     */
     public Mono<Void> update(Anime anime) {
-              
-        return findById(anime.getId())
-                .map(animeFound -> anime.withId(animeFound.getId()))
+        return replace(anime).then();
+    }
+
+    private Mono<Anime> replace(Anime anime) {
+        return findByIdOrNotFound(anime.getId())
+                .map(animeFound -> anime.withId(animeFound.getId())
+                    .withVersion(anime.getVersion() != null ? anime.getVersion() : animeFound.getVersion()))
                 .flatMap(animeRepository::save)
-                .thenEmpty(Mono.empty());
+                .onErrorMap(OptimisticLockingFailureException.class, e -> conflict(anime.getId()))
+                .flatMap(saved -> evict(saved.getId()).thenReturn(saved));
+    }
+
+    /**
+     * Applies a partial update in a single conditional UPDATE; the anime is only
+     * read again to tell a missing id (404) from a stale version (409).
+     */
+    public Mono<Anime> patch(int id, AnimePatch patch) {
+        return animeRepository.patch(id, patch.getVersion(), patch.getName())
+            .switchIfEmpty(Mono.defer(() -> animeRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists ? conflict(id) : notFound()))))
+            .flatMap(patched -> evict(id).thenReturn(patched));
+    }
+
+    /**
+     * Applies all patches or none: one UPDATE per chunk of {@value #PATCH_CHUNK_SIZE},
+     * and the transaction rolls back with 409 if any id is missing or stale. The
+     * cache is evicted after the commit.
+     */
+    public Mono<List<Anime>> patchAll(List<AnimePatch> patches) {
+        if (patches.size() > MAX_BULK_IDS) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + MAX_BULK_IDS + " patches per request"));
+        }
+        Set<Integer> ids = patches.stream().map(AnimePatch::getId).collect(Collectors.toSet());
+        if (ids.contains(null) || ids.size() < patches.size()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Every patch needs a distinct id"));
+        }
+        if (patches.stream().anyMatch(this::isInvalid)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Every patch needs a version and a name of 1 to 255 characters if present"));
+        }
+        Mono<List<Anime>> patched = Flux.fromIterable(patches)
+            .buffer(PATCH_CHUNK_SIZE)
+            .concatMap(this::patchChunk)
+            .collectList();
+        return transactionalOperator.transactional(patched)
+            .flatMap(applied -> animeCache.evict(ids).thenReturn(applied));
+    }
+
+    private Flux<Anime> patchChunk(List<AnimePatch> chunk) {
+        return animeRepository.patchAll(
+                chunk.stream().map(AnimePatch::getId).toArray(Integer[]::new),
+                chunk.stream().map(AnimePatch::getVersion).toArray(Long[]::new),
+                chunk.stream().map(AnimePatch::getName).toArray(String[]::new))
+            .collectList()
+            .flatMapMany(patched -> {
+                if (patched.size() == chunk.size()) {
+                    return Flux.fromIterable(patched);
+                }
+                Set<Integer> applied = patched.stream().map(Anime::getId).collect(Collectors.toSet());
+                String rejected = chunk.stream()
+                    .map(AnimePatch::getId)
+                    .filter(id -> !applied.contains(id))
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", "));
+                return Flux.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Animes missing or modified concurrently: " + rejected));
+            });
+    }
+
+    private boolean isInvalid(AnimePatch patch) {
+        String name = patch.getName();
+        return patch.getVersion() == null || (name != null && (name.isEmpty() || name.length() > 255));
+    }
+
+    private ResponseStatusException conflict(int id) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Anime " + id + " was modified concurrently");
+    }
+
+    private ResponseStatusException notFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime not found");
     }
 
     public Mono<Void> deleteById(int id) {
-        return animeRepository.deleteById(id);
+        return animeRepository.deleteById(id)
+            .then(evict(id));
     }
 
-    @Transactional
+    /**
+     * Saves with the concurrency, ordering and transaction mode of
+     * {@link SaveAllProperties}. Animes that arrived with an id replace the
+     * stored ones as in {@link #save}; only those can be cached, so only those
+     * are evicted.
+     */
     public Flux<Anime> saveAll(List<Anime> animes) {
-        return animeRepository.saveAll(animes)
+        List<Integer> existingIds = animes.stream()
+            .map(Anime::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        Flux<Anime> saved = withStoredVersions(animes)
+            .flatMapMany(this::insert)
+            .onErrorMap(OptimisticLockingFailureException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT,
+                "Animes missing or modified concurrently"))
             .doOnNext(this::throwResponseStatusExceptionWhenNameIsEmpty);
+        // evicted once committed, so a concurrent read cannot cache the rows as they were before
+        return (saveAllProperties.isTransactional() ? transactionalOperator.transactional(saved) : saved)
+            .concatWith(animeCache.evict(existingIds).then(Mono.<Anime>empty()));
+    }
+
+    /**
+     * Gives animes with an id but no version the stored version, in one query,
+     * so they are updated rather than inserted; fails with 404 naming the ids
+     * that do not exist.
+     */
+    private Mono<List<Anime>> withStoredVersions(List<Anime> animes) {
+        Set<Integer> unversioned = animes.stream()
+            .filter(anime -> anime.getId() != null && anime.getVersion() == null)
+            .map(Anime::getId)
+            .collect(Collectors.toSet());
+        if (unversioned.isEmpty()) {
+            return Mono.just(animes);
+        }
+        return animeRepository.findAllById(unversioned)
+            .collectMap(Anime::getId, Anime::getVersion)
+            .flatMap(versions -> {
+                if (versions.size() < unversioned.size()) {
+                    String missing = unversioned.stream()
+                        .filter(id -> !versions.containsKey(id))
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(", "));
+                    return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Animes not found: " + missing));
+                }
+                return Mono.just(animes.stream()
+                    .map(anime -> unversioned.contains(anime.getId()) && anime.getVersion() == null
+                        ? anime.withVersion(versions.get(anime.getId()))
+                        : anime)
+                    .collect(Collectors.toList()));
+            });
+    }
+
+    /**
+     * Concurrent inserts only run without a transaction; the transaction's
+     * single connection would execute them one after the other anyway.
+     */
+    private Flux<Anime> insert(List<Anime> animes) {
+        int concurrency = saveAllProperties.getConcurrency();
+        if (concurrency <= 1 || saveAllProperties.isTransactional()) {
+            return animeRepository.saveAll(animes);
+        }
+        Flux<Anime> source = Flux.fromIterable(animes);
+        // each inner save emits one anime, so there is nothing for an inner prefetch to bound
+        return saveAllProperties.isOrdered()
+            ? source.flatMapSequential(animeRepository::save, concurrency)
+            : source.flatMap(animeRepository::save, concurrency);
+    }
+
+    private Mono<Void> evict(Integer id) {
+        return id == null ? Mono.empty() : animeCache.evict(List.of(id));
     }
 
     private void throwResponseStatusExceptionWhenNameIsEmpty(Anime anime) {
@@ -0,0 +1,113 @@
+package com.sharshag.springwebfluxresearch.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+
+import com.sharshag.springwebfluxresearch.config.StatsProperties;
+import com.sharshag.springwebfluxresearch.domain.AnimeStats;
+import com.sharshag.springwebfluxresearch.r2dbc.RoutingContext;
+import com.sharshag.springwebfluxresearch.tenant.TenantContext;
+
+import lombok.Value;
+import reactor.core.publisher.Mono;
+
+/**
+ * Catalog statistics aggregated by the database in a single scan: one
+ * GROUPING SETS query yields the total, the name-length histogram and the
+ * prefix buckets together. The result is shared by all callers of a tenant
+ * for the cache TTL, so dashboards polling the endpoint do not each trigger a
+ * scan.
+ */
+@Service
+public class AnimeStatsService {
+
+    private static final String STATS_QUERY = "SELECT %1$s AS length_bucket, %2$s AS prefix, count(*) AS animes,"
+        + " min(char_length(name)) AS min_length, max(char_length(name)) AS max_length,"
+        + " GROUPING(%1$s, %2$s) AS grouping_id"
+        + " FROM anime WHERE deleted_at IS NULL GROUP BY GROUPING SETS ((), (%1$s), (%2$s))";
+
+    // GROUPING() sets a bit for every expression the row is aggregated over
+    private static final int TOTAL_ROW = 3;
+    private static final int LENGTH_ROW = 1;
+    private static final int PREFIX_ROW = 2;
+
+    private final DatabaseClient databaseClient;
+    private final StatsProperties statsProperties;
+    private final String statsQuery;
+    private final Map<String, Mono<AnimeStats>> stats = new ConcurrentHashMap<>();
+
+    public AnimeStatsService(DatabaseClient databaseClient, StatsProperties statsProperties) {
+        this.databaseClient = databaseClient;
+        this.statsProperties = statsProperties;
+        // both values are integers from configuration, so inlining them is safe and lets the
+        // GROUP BY expressions match the selected ones exactly
+        this.statsQuery = String.format(STATS_QUERY,
+            "(char_length(name) - 1) / " + statsProperties.getLengthBucketWidth(),
+            "upper(left(name, " + statsProperties.getPrefixLength() + "))");
+    }
+
+    public Mono<AnimeStats> getStats() {
+        // the cached Mono runs with the context of the caller that fills it, who is of the same tenant
+        return Mono.deferContextual(context -> stats.computeIfAbsent(TenantContext.current(context),
+            tenant -> Mono.defer(this::aggregate)
+                .cache(computed -> statsProperties.getCacheTtl(), error -> Duration.ZERO, () -> Duration.ZERO)));
+    }
+
+    private Mono<AnimeStats> aggregate() {
+        return databaseClient.sql(statsQuery)
+            .map((row, metadata) -> new StatsRow(
+                row.get("grouping_id", Integer.class),
+                row.get("length_bucket", Integer.class),
+                row.get("prefix", String.class),
+                row.get("animes", Long.class),
+                row.get("min_length", Integer.class),
+                row.get("max_length", Integer.class)))
+            .all()
+            .collectList()
+            .map(rows -> assemble(rows, statsProperties.getLengthBucketWidth(), statsProperties.getMaxPrefixes()))
+            .contextWrite(RoutingContext::readOnly);
+    }
+
+    static AnimeStats assemble(List<StatsRow> rows, int bucketWidth, int maxPrefixes) {
+        StatsRow total = rows.stream()
+            .filter(row -> row.getGroupingId() == TOTAL_ROW)
+            .findFirst()
+            .orElse(new StatsRow(TOTAL_ROW, null, null, 0L, null, null));
+
+        List<AnimeStats.Bucket> nameLengths = rows.stream()
+            .filter(row -> row.getGroupingId() == LENGTH_ROW && row.getLengthBucket() != null)
+            .sorted(Comparator.comparing(StatsRow::getLengthBucket))
+            .map(row -> new AnimeStats.Bucket(
+                (row.getLengthBucket() * bucketWidth + 1) + "-" + ((row.getLengthBucket() + 1) * bucketWidth),
+                row.getAnimes()))
+            .collect(Collectors.toList());
+
+        List<AnimeStats.Bucket> prefixes = rows.stream()
+            .filter(row -> row.getGroupingId() == PREFIX_ROW && row.getPrefix() != null)
+            .sorted(Comparator.comparing(StatsRow::getAnimes).reversed().thenComparing(StatsRow::getPrefix))
+            .limit(maxPrefixes)
+            .map(row -> new AnimeStats.Bucket(row.getPrefix(), row.getAnimes()))
+            .collect(Collectors.toList());
+
+        return new AnimeStats(total.getAnimes(), total.getMinLength(), total.getMaxLength(), nameLengths, prefixes,
+            Instant.now());
+    }
+
+    @Value
+    static class StatsRow {
+        int groupingId;
+        Integer lengthBucket;
+        String prefix;
+        long animes;
+        Integer minLength;
+        Integer maxLength;
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.sharshag.springwebfluxresearch.r2dbc.RoutingContext;
 import com.sharshag.springwebfluxresearch.repository.DevDojoUserRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -17,7 +18,9 @@ public class DevDojoUserDetailsService implements ReactiveUserDetailsService {
 
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return devDojoUserRepository.findByUsername(username).cast(UserDetails.class);
+        return devDojoUserRepository.findByUsername(username)
+            .cast(UserDetails.class)
+            .contextWrite(RoutingContext::readOnly);
     }
     
 }
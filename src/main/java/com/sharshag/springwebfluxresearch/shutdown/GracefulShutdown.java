@@ -0,0 +1,86 @@
+package com.sharshag.springwebfluxresearch.shutdown;
+
+import java.time.Duration;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextClosedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shutdown sequence for rolling deploys. When the context closes, readiness
+ * has already turned to REFUSING_TRAFFIC; the optional pre-stop delay keeps
+ * serving while load balancers notice. Then, in the same lifecycle phase as
+ * the web server's graceful shutdown, which stops accepting connections, the
+ * in-flight requests are drained. Beans stopping in later phases, the outbox
+ * relay and the connection pools among them, only go once draining is over.
+ */
+@Slf4j
+public class GracefulShutdown implements SmartLifecycle, ApplicationListener<ContextClosedEvent> {
+
+    private final InFlightRequests inFlightRequests;
+    private final Duration preStopDelay;
+    private final Duration drainTimeout;
+    private volatile boolean running;
+
+    public GracefulShutdown(InFlightRequests inFlightRequests, Duration preStopDelay, Duration drainTimeout) {
+        this.inFlightRequests = inFlightRequests;
+        this.preStopDelay = preStopDelay;
+        this.drainTimeout = drainTimeout;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        if (preStopDelay.isZero() || !running) {
+            return;
+        }
+        log.info("not ready anymore, serving for another {} before draining", preStopDelay);
+        try {
+            Thread.sleep(preStopDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Blocks until draining is over, so the beans of later phases are not
+     * stopped under running requests.
+     */
+    @Override
+    public void stop() {
+        try {
+            inFlightRequests.drain(drainTimeout).block();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        inFlightRequests.drain(drainTimeout)
+            .doFinally(signal -> {
+                running = false;
+                callback.run();
+            })
+            .subscribe();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The web server's graceful shutdown phase.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,145 @@
+package com.sharshag.springwebfluxresearch.shutdown;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Tracks every request until its response, streamed bodies included, is
+ * complete, so shutdown can wait for them. Once draining, requests arriving on
+ * connections that are still open are turned away with 503 and
+ * {@code Connection: close} so the client reconnects to another node. Requests
+ * still running at the drain deadline are cancelled, which rolls back their
+ * open R2DBC transactions.
+ * <p>
+ * Meters: {@code http.server.requests.inflight}, {@code http.server.shutdown.drain}
+ * for how long draining took, {@code http.server.shutdown.aborted} for requests
+ * cancelled at the deadline and {@code http.server.shutdown.rejected} for
+ * requests turned away while draining.
+ */
+@Slf4j
+public class InFlightRequests implements WebFilter, Ordered {
+
+    /**
+     * How long cancelled requests get to unwind, releasing their connections,
+     * before draining gives up on them.
+     */
+    static final Duration ABORT_GRACE = Duration.ofSeconds(1);
+
+    private final Set<Sinks.Empty<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private final Sinks.Empty<Void> drained = Sinks.empty();
+    private final String retryAfterSeconds;
+    private final Counter aborted;
+    private final Counter rejected;
+    private final Timer drainTime;
+    private volatile boolean draining;
+
+    public InFlightRequests(Duration retryAfter, MeterRegistry meterRegistry) {
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.aborted = Counter.builder("http.server.shutdown.aborted")
+            .description("Requests cancelled because they outlived the drain deadline")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("http.server.shutdown.rejected")
+            .description("Requests turned away with 503 while draining")
+            .register(meterRegistry);
+        this.drainTime = Timer.builder("http.server.shutdown.drain")
+            .description("Time from the start of draining until no request was in flight")
+            .register(meterRegistry);
+        Gauge.builder("http.server.requests.inflight", inFlight, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Before tracing and security, so rejected requests cost nothing.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Sinks.Empty<Void> abort = Sinks.empty();
+        // registered before the check, so drain() either sees this request or the request sees draining
+        inFlight.add(abort);
+        if (draining) {
+            release(abort);
+            return reject(exchange.getResponse());
+        }
+        Mono<Void> cancelled = abort.asMono()
+            .then(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is shutting down")));
+        return Mono.firstWithSignal(chain.filter(exchange), cancelled)
+            .doFinally(signal -> release(abort));
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        rejected.increment();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.CONNECTION, "close");
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        return response.setComplete();
+    }
+
+    private void release(Sinks.Empty<Void> abort) {
+        inFlight.remove(abort);
+        if (draining && inFlight.isEmpty()) {
+            drained.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * Stops admitting requests and completes once none is in flight, cancelling
+     * the remaining ones when {@code timeout} elapses first and then waiting up
+     * to {@link #ABORT_GRACE} for them to unwind.
+     */
+    public Mono<Void> drain(Duration timeout) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            draining = true;
+            log.info("draining {} in-flight requests", inFlight.size());
+            if (inFlight.isEmpty()) {
+                drained.tryEmitEmpty();
+            }
+            return drained.asMono()
+                .timeout(timeout, Mono.fromRunnable(this::abortAll)
+                    .then(drained.asMono())
+                    .timeout(ABORT_GRACE, Mono.fromRunnable(() ->
+                        log.warn("{} cancelled requests still in flight after {}", inFlight.size(), ABORT_GRACE))))
+                .doFinally(signal -> drainTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private void abortAll() {
+        log.warn("cancelling {} requests still in flight at the drain deadline", inFlight.size());
+        for (Sinks.Empty<Void> abort : inFlight) {
+            if (abort.tryEmitEmpty().isSuccess()) {
+                aborted.increment();
+            }
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+}
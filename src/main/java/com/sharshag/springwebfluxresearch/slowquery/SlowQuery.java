@@ -0,0 +1,24 @@
+package com.sharshag.springwebfluxresearch.slowquery;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+/**
+ * A statement that exceeded the slow-query threshold, aggregated over its
+ * slow executions. The parameters are the types and sizes of the last slow
+ * execution's bound values, never the values themselves; the plan is null
+ * until one was captured.
+ */
+@Value
+public class SlowQuery {
+
+    String sql;
+    long count;
+    long maxMillis;
+    long meanMillis;
+    Instant lastSeen;
+    String parameters;
+    String plan;
+    Instant planCapturedAt;
+}
@@ -0,0 +1,261 @@
+package com.sharshag.springwebfluxresearch.slowquery;
+
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.sharshag.springwebfluxresearch.r2dbc.StatementExecution;
+import com.sharshag.springwebfluxresearch.r2dbc.StatementListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Times the statements on the configured tables and reports the ones whose
+ * first row took longer than the threshold: a warning with the SQL and the shape of its bound values,
+ * an entry in the top-N {@link SlowQueryTable}, and for a sample of them the
+ * plan. Plans are captured asynchronously on a connection of their own with
+ * the first binding set of the slow execution and the caller's context, so
+ * they hit the same tenant and replica. At most {@code explainConcurrency}
+ * captures run at once, so slow spells cannot take the pool's connections
+ * away from requests.
+ * <p>
+ * Only plain SELECTs are run with EXPLAIN ANALYZE; anything that writes or
+ * locks gets a plain EXPLAIN. A SELECT can still call a volatile function with
+ * side effects, so ANALYZE runs in a READ ONLY transaction that is rolled
+ * back: writes, including nextval(), fail the capture instead of happening.
+ * Effects outside the transaction, such as pg_sleep or advisory locks, are not
+ * prevented, so keep such functions out of the observed tables' statements.
+ * <p>
+ * Meters: {@code r2dbc.statements} times every statement in scope,
+ * {@code r2dbc.statements.slow} counts those above the threshold and
+ * {@code r2dbc.statements.explain.failures} the plans that could not be captured.
+ */
+@Slf4j
+public class SlowQueryListener implements StatementListener {
+
+    /**
+     * Context key set while a plan is captured, so the EXPLAIN is not observed itself.
+     */
+    private static final String EXPLAINING = SlowQueryListener.class.getName() + ".EXPLAINING";
+
+    private static final String ANALYZE = "EXPLAIN (ANALYZE, BUFFERS) ";
+
+    private final Pattern scope;
+    private final long thresholdNanos;
+    private final double explainSampleRatio;
+    private final Duration explainTimeout;
+    private final Semaphore explainPermits;
+    private final Supplier<ConnectionFactory> connectionFactory;
+    private final SlowQueryTable table;
+    private final Timer statements;
+    private final Counter slow;
+    private final Counter explainFailures;
+
+    public SlowQueryListener(Collection<String> tables, Duration threshold, int retained, double explainSampleRatio,
+            Duration explainInterval, int explainConcurrency, Duration explainTimeout,
+            Supplier<ConnectionFactory> connectionFactory, MeterRegistry meterRegistry) {
+        this.scope = Pattern.compile(tables.stream().map(Pattern::quote).collect(Collectors.joining("|", "\\b(", ")\\b")),
+            Pattern.CASE_INSENSITIVE);
+        this.thresholdNanos = threshold.toNanos();
+        this.explainSampleRatio = explainSampleRatio;
+        this.explainTimeout = explainTimeout;
+        this.explainPermits = new Semaphore(explainConcurrency);
+        this.connectionFactory = connectionFactory;
+        this.table = new SlowQueryTable(retained, explainInterval);
+        this.statements = Timer.builder("r2dbc.statements")
+            .description("Execution of statements on the observed tables, including row streaming")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.slow = Counter.builder("r2dbc.statements.slow")
+            .description("Statements slower than the slow-query threshold")
+            .register(meterRegistry);
+        this.explainFailures = Counter.builder("r2dbc.statements.explain.failures")
+            .description("Plans of slow statements that could not be captured")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public StatementObservation beforeExecute(StatementExecution execution, ContextView context) {
+        if (context.hasKey(EXPLAINING) || !scope.matcher(execution.getSql()).find()) {
+            return StatementObservation.NOOP;
+        }
+        return new Observation(execution, context);
+    }
+
+    /**
+     * Slowest statements first.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        return table.snapshot();
+    }
+
+    public void reset() {
+        table.clear();
+    }
+
+    /**
+     * Judges a statement by the time to its first row: the rows after it are
+     * pulled as fast as the consumer reads them, so a slow client streaming an
+     * export or an NDJSON list would otherwise make every such read look slow,
+     * and its plan capture would re-run the whole scan. A statement without
+     * rows is judged by its full duration.
+     */
+    private class Observation implements StatementObservation {
+
+        private final StatementExecution execution;
+        private final ContextView context;
+        private final long started = System.nanoTime();
+        private volatile long firstRowNanos = -1;
+
+        Observation(StatementExecution execution, ContextView context) {
+            this.execution = execution;
+            this.context = context;
+        }
+
+        @Override
+        public void firstRow() {
+            firstRowNanos = System.nanoTime() - started;
+        }
+
+        @Override
+        public void afterExecute(Throwable error) {
+            long elapsed = System.nanoTime() - started;
+            statements.record(elapsed, TimeUnit.NANOSECONDS);
+            long responseNanos = firstRowNanos >= 0 ? firstRowNanos : elapsed;
+            if (responseNanos >= thresholdNanos) {
+                onSlow(execution, responseNanos, error == null, context);
+            }
+        }
+    }
+
+    private void onSlow(StatementExecution execution, long elapsedNanos, boolean succeeded, ContextView context) {
+        slow.increment();
+        String parameters = shape(execution.getBindings());
+        log.warn("slow statement took {} ms to its first row: {} {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            execution.getSql(), parameters);
+        // a failed statement has no plan worth capturing, it would likely fail again
+        boolean sampled = succeeded && ThreadLocalRandom.current().nextDouble() < explainSampleRatio;
+        if (table.record(execution.getSql(), elapsedNanos, parameters, Instant.now(), sampled)) {
+            explain(execution, context);
+        }
+    }
+
+    private void explain(StatementExecution execution, ContextView context) {
+        if (!explainPermits.tryAcquire()) {
+            log.debug("skipping the plan of {}, other plans are being captured", execution.getSql());
+            return;
+        }
+        Map<Object, Object> bindings = execution.getBindings().isEmpty() ? Map.of() : execution.getBindings().get(0);
+        String explainSql = explainSql(execution.getSql());
+        Flux.usingWhen(Mono.defer(() -> Mono.from(connectionFactory.get().create())),
+                connection -> isAnalyze(explainSql)
+                    ? Flux.usingWhen(readOnlyTransaction(connection),
+                        tx -> plan(tx, explainSql, bindings),
+                        Connection::rollbackTransaction)
+                    : plan(connection, explainSql, bindings),
+                Connection::close)
+            .collect(Collectors.joining("\n"))
+            .timeout(explainTimeout)
+            .contextWrite(current -> current.putAll(context).put(EXPLAINING, true))
+            .doFinally(signal -> explainPermits.release())
+            .subscribe(plan -> table.plan(execution.getSql(), plan, Instant.now()),
+                error -> {
+                    explainFailures.increment();
+                    log.debug("could not capture the plan of {}: {}", execution.getSql(), error.toString());
+                });
+    }
+
+    private static Mono<Connection> readOnlyTransaction(Connection connection) {
+        return Mono.from(connection.beginTransaction())
+            .thenMany(connection.createStatement("SET TRANSACTION READ ONLY").execute())
+            .flatMap(Result::getRowsUpdated)
+            .then(Mono.just(connection));
+    }
+
+    private static Flux<String> plan(Connection connection, String explainSql, Map<Object, Object> bindings) {
+        Statement statement = connection.createStatement(explainSql);
+        bindings.forEach((key, value) -> bind(statement, key, value));
+        return Flux.from(statement.execute())
+            .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)));
+    }
+
+    static String explainSql(String sql) {
+        String normalized = sql.stripLeading().toUpperCase(Locale.ROOT);
+        boolean readOnly = normalized.startsWith("SELECT") && !normalized.contains(" FOR UPDATE")
+            && !normalized.contains(" FOR SHARE") && !normalized.contains(" FOR NO KEY UPDATE");
+        return (readOnly ? ANALYZE : "EXPLAIN ") + sql;
+    }
+
+    private static boolean isAnalyze(String explainSql) {
+        return explainSql.startsWith(ANALYZE);
+    }
+
+    /**
+     * Types and sizes of the bound values, e.g. {@code [$1=Integer, $2=String(12)] x3}
+     * for three binding sets; the values themselves may be personal data and are left out.
+     */
+    static String shape(List<Map<Object, Object>> bindings) {
+        if (bindings.isEmpty()) {
+            return "[]";
+        }
+        String first = bindings.get(0).entrySet().stream()
+            .map(binding -> parameterName(binding.getKey()) + "=" + valueShape(binding.getValue()))
+            .collect(Collectors.joining(", ", "[", "]"));
+        return bindings.size() == 1 ? first : first + " x" + bindings.size();
+    }
+
+    private static String parameterName(Object key) {
+        return key instanceof Integer ? "$" + ((Integer) key + 1) : String.valueOf(key);
+    }
+
+    private static String valueShape(Object value) {
+        // bindNull is recorded as the type of the null
+        if (value instanceof Class) {
+            return "null " + ((Class<?>) value).getSimpleName();
+        }
+        if (value instanceof CharSequence) {
+            return value.getClass().getSimpleName() + "(" + ((CharSequence) value).length() + ")";
+        }
+        if (value.getClass().isArray()) {
+            return value.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(value) + "]";
+        }
+        if (value instanceof Collection) {
+            return value.getClass().getSimpleName() + "(" + ((Collection<?>) value).size() + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static void bind(Statement statement, Object key, Object value) {
+        if (key instanceof Integer) {
+            if (value instanceof Class) {
+                statement.bindNull((Integer) key, (Class<?>) value);
+            } else {
+                statement.bind((Integer) key, value);
+            }
+        } else if (value instanceof Class) {
+            statement.bindNull((String) key, (Class<?>) value);
+        } else {
+            statement.bind((String) key, value);
+        }
+    }
+}
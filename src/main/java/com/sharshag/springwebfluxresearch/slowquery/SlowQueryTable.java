@@ -0,0 +1,105 @@
+package com.sharshag.springwebfluxresearch.slowquery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The slowest statements by SQL, at most {@code capacity} of them: when full,
+ * a new statement replaces the entry with the lowest maximum only if it was
+ * slower. Only slow executions get here, so a monitor is cheap enough.
+ */
+class SlowQueryTable {
+
+    private final int capacity;
+    private final Duration explainInterval;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    SlowQueryTable(int capacity, Duration explainInterval) {
+        this.capacity = capacity;
+        this.explainInterval = explainInterval;
+    }
+
+    /**
+     * Records a slow execution and tells whether the caller should capture its
+     * plan: only when {@code sampled}, the statement is retained and its last
+     * plan was requested more than the explain interval ago.
+     */
+    synchronized boolean record(String sql, long nanos, String parameters, Instant now, boolean sampled) {
+        Entry entry = entries.get(sql);
+        if (entry == null) {
+            if (entries.size() >= capacity) {
+                Entry fastest = entries.values().stream()
+                    .min(Comparator.comparingLong(e -> e.maxNanos))
+                    .orElseThrow();
+                if (fastest.maxNanos >= nanos) {
+                    return false;
+                }
+                entries.remove(fastest.sql);
+            }
+            entry = new Entry(sql);
+            entries.put(sql, entry);
+        }
+        entry.count++;
+        entry.totalNanos += nanos;
+        entry.maxNanos = Math.max(entry.maxNanos, nanos);
+        entry.lastSeen = now;
+        entry.parameters = parameters;
+        if (!sampled || (entry.planRequestedAt != null && now.isBefore(entry.planRequestedAt.plus(explainInterval)))) {
+            return false;
+        }
+        entry.planRequestedAt = now;
+        return true;
+    }
+
+    synchronized void plan(String sql, String plan, Instant now) {
+        Entry entry = entries.get(sql);
+        if (entry != null) {
+            entry.plan = plan;
+            entry.planCapturedAt = now;
+        }
+    }
+
+    /**
+     * Slowest first.
+     */
+    synchronized List<SlowQuery> snapshot() {
+        return entries.values().stream()
+            .sorted(Comparator.comparingLong((Entry e) -> e.maxNanos).reversed())
+            .map(Entry::toSlowQuery)
+            .collect(Collectors.toList());
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+
+        private final String sql;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private Instant lastSeen;
+        private String parameters;
+        private String plan;
+        private Instant planCapturedAt;
+        private Instant planRequestedAt;
+
+        Entry(String sql) {
+            this.sql = sql;
+        }
+
+        SlowQuery toSlowQuery() {
+            return new SlowQuery(sql, count,
+                TimeUnit.NANOSECONDS.toMillis(maxNanos),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos / count),
+                lastSeen, parameters, plan, planCapturedAt);
+        }
+    }
+}
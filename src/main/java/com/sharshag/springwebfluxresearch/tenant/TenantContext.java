@@ -0,0 +1,29 @@
+package com.sharshag.springwebfluxresearch.tenant;
+
+import java.util.function.Function;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Reactor {@link Context} entry carrying the tenant of the current request,
+ * put there once by {@link TenantWebFilter}. Pipelines without one belong to
+ * the default tenant.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final String TENANT = TenantContext.class.getName() + ".TENANT";
+
+    private TenantContext() {
+    }
+
+    public static Function<Context, Context> withTenant(String tenant) {
+        return context -> context.put(TENANT, tenant);
+    }
+
+    public static String current(ContextView context) {
+        return context.getOrDefault(TENANT, DEFAULT_TENANT);
+    }
+}
@@ -0,0 +1,51 @@
+package com.sharshag.springwebfluxresearch.tenant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out connections from the pool of the tenant in the Reactor context.
+ * Every tenant has a pool of its own whose connections are bound to the
+ * tenant's schema, so a tenant saturating its pool only queues behind itself.
+ * A tenant without a pool is an error rather than a silent fallback to the
+ * default tenant's data.
+ */
+public class TenantRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private final Map<String, ConnectionFactory> tenants;
+
+    /**
+     * @param tenants pools by tenant, including {@link TenantContext#DEFAULT_TENANT}
+     */
+    public TenantRoutingConnectionFactory(Map<String, ConnectionFactory> tenants) {
+        if (!tenants.containsKey(TenantContext.DEFAULT_TENANT)) {
+            throw new IllegalArgumentException("No connection factory for the default tenant");
+        }
+        this.tenants = new LinkedHashMap<>(tenants);
+        setTargetConnectionFactories(new LinkedHashMap<>(tenants));
+        setDefaultTargetConnectionFactory(tenants.get(TenantContext.DEFAULT_TENANT));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.just(TenantContext.current(context)));
+    }
+
+    @Override
+    public void destroy() {
+        tenants.values().forEach(connectionFactory -> {
+            if (connectionFactory instanceof Disposable) {
+                ((Disposable) connectionFactory).dispose();
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.sharshag.springwebfluxresearch.tenant;
+
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.sharshag.springwebfluxresearch.domain.DevDojoUser;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the tenant of the authenticated user once per request and puts it
+ * into the Reactor context of everything downstream. Runs inside the security
+ * filter chain after authentication; anonymous requests stay on the default
+ * tenant.
+ */
+public class TenantWebFilter implements WebFilter {
+
+    private final Set<String> tenants;
+
+    /**
+     * @param tenants the tenants that have a schema, including the default one
+     */
+    public TenantWebFilter(Set<String> tenants) {
+        this.tenants = Set.copyOf(tenants);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+            .map(SecurityContext::getAuthentication)
+            .map(Authentication::getPrincipal)
+            .filter(DevDojoUser.class::isInstance)
+            .map(principal -> ((DevDojoUser) principal).getTenant())
+            .defaultIfEmpty(TenantContext.DEFAULT_TENANT)
+            .flatMap(tenant -> {
+                if (!tenants.contains(tenant)) {
+                    return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Unknown tenant"));
+                }
+                return chain.filter(exchange).contextWrite(TenantContext.withTenant(tenant));
+            });
+    }
+}
@@ -0,0 +1,59 @@
+package com.sharshag.springwebfluxresearch.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Carries the OpenTelemetry {@link Context} in the Reactor context, which
+ * follows a subscription across threads on its own; no thread locals are
+ * involved. A traced publisher reads its parent from the subscriber's
+ * context, and its upstream sees the new span as the current one.
+ */
+public final class ReactorTracing {
+
+    private static final Object KEY = ReactorTracing.class;
+
+    private ReactorTracing() {
+    }
+
+    public static Context current(ContextView context) {
+        return context.getOrDefault(KEY, Context.root());
+    }
+
+    public static reactor.util.context.Context with(reactor.util.context.Context context, Context otelContext) {
+        return context.put(KEY, otelContext);
+    }
+
+    public static <T> Mono<T> trace(Tracer tracer, String name, SpanKind kind, Mono<T> mono) {
+        return Mono.deferContextual(context -> {
+            Context parent = current(context);
+            Span span = tracer.spanBuilder(name).setParent(parent).setSpanKind(kind).startSpan();
+            return mono
+                .doOnError(error -> recordError(span, error))
+                .doFinally(signal -> span.end())
+                .contextWrite(c -> with(c, parent.with(span)));
+        });
+    }
+
+    public static <T> Flux<T> trace(Tracer tracer, String name, SpanKind kind, Flux<T> flux) {
+        return Flux.deferContextual(context -> {
+            Context parent = current(context);
+            Span span = tracer.spanBuilder(name).setParent(parent).setSpanKind(kind).startSpan();
+            return flux
+                .doOnError(error -> recordError(span, error))
+                .doFinally(signal -> span.end())
+                .contextWrite(c -> with(c, parent.with(span)));
+        });
+    }
+
+    public static void recordError(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR, String.valueOf(error.getMessage()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.sharshag.springwebfluxresearch.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Wraps the reactive results of {@code AnimeService}, user lookup and
+ * authentication in spans named {@code Class.method}. Only the returned
+ * publisher is traced, so the span covers the asynchronous work rather than
+ * the assembly call.
+ */
+@Aspect
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(public * com.sharshag.springwebfluxresearch.service.AnimeService.*(..))"
+        + " && !execution(* com.sharshag.springwebfluxresearch.service.AnimeService.monoResponseStatusNotFoundException(..))"
+        + " || execution(public * com.sharshag.springwebfluxresearch.service.DevDojoUserDetailsService.findByUsername(..))"
+        + " || execution(public * org.springframework.security.authentication.ReactiveAuthenticationManager+.authenticate(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        String name = AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName()
+            + "." + joinPoint.getSignature().getName();
+        if (result instanceof Mono) {
+            return ReactorTracing.trace(tracer, name, SpanKind.INTERNAL, (Mono<?>) result);
+        }
+        if (result instanceof Flux) {
+            return ReactorTracing.trace(tracer, name, SpanKind.INTERNAL, (Flux<?>) result);
+        }
+        return result;
+    }
+}
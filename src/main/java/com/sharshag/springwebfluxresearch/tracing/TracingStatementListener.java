@@ -0,0 +1,49 @@
+package com.sharshag.springwebfluxresearch.tracing;
+
+import java.util.Locale;
+
+import com.sharshag.springwebfluxresearch.r2dbc.StatementExecution;
+import com.sharshag.springwebfluxresearch.r2dbc.StatementListener;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import reactor.util.context.ContextView;
+
+/**
+ * One client span per SQL statement, parented on whatever span is current in
+ * the subscriber's Reactor context. Bound values are not recorded.
+ */
+public class TracingStatementListener implements StatementListener {
+
+    private final Tracer tracer;
+
+    public TracingStatementListener(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public StatementObservation beforeExecute(StatementExecution execution, ContextView context) {
+        Span span = tracer.spanBuilder(operation(execution.getSql()))
+            .setParent(ReactorTracing.current(context))
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("db.system", "postgresql")
+            .setAttribute("db.statement", execution.getSql())
+            .startSpan();
+        return error -> {
+            if (error != null) {
+                ReactorTracing.recordError(span, error);
+            }
+            span.end();
+        };
+    }
+
+    static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "SQL" : trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+}
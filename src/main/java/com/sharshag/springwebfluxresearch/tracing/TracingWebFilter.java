@@ -0,0 +1,76 @@
+package com.sharshag.springwebfluxresearch.tracing;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Opens the server span before the Spring Security filter chain runs, so
+ * authentication, handler and SQL spans all hang off the request. An incoming
+ * W3C {@code traceparent} header makes the request join the caller's trace.
+ */
+public class TracingWebFilter implements WebFilter, Ordered {
+
+    private static final TextMapGetter<HttpHeaders> HEADERS = new TextMapGetter<>() {
+
+        @Override
+        public Iterable<String> keys(HttpHeaders carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(HttpHeaders carrier, String key) {
+            return carrier == null ? null : carrier.getFirst(key);
+        }
+    };
+
+    private final Tracer tracer;
+
+    public TracingWebFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Context parent = W3CTraceContextPropagator.getInstance()
+            .extract(Context.root(), request.getHeaders(), HEADERS);
+        Span span = tracer.spanBuilder("HTTP " + request.getMethodValue())
+            .setParent(parent)
+            .setSpanKind(SpanKind.SERVER)
+            .setAttribute("http.method", request.getMethodValue())
+            .setAttribute("http.target", request.getPath().value())
+            .startSpan();
+
+        return chain.filter(exchange)
+            .doOnError(error -> ReactorTracing.recordError(span, error))
+            .doFinally(signal -> {
+                if (exchange.getResponse().getRawStatusCode() != null) {
+                    int status = exchange.getResponse().getRawStatusCode();
+                    span.setAttribute("http.status_code", status);
+                    if (status >= 500) {
+                        span.setStatus(StatusCode.ERROR);
+                    }
+                }
+                span.end();
+            })
+            .contextWrite(context -> ReactorTracing.with(context, parent.with(span)));
+    }
+}
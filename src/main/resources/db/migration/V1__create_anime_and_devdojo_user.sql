@@ -0,0 +1,14 @@
+-- Baseline of the tables the application has always expected. IF NOT EXISTS keeps this
+-- harmless on databases that were created by hand before migrations existed.
+CREATE TABLE IF NOT EXISTS anime (
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS devdojo_user (
+    id          SERIAL PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    username    VARCHAR(100) NOT NULL,
+    password    VARCHAR(150) NOT NULL,
+    authorities VARCHAR(150) NOT NULL
+);
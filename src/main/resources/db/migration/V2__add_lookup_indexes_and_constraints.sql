@@ -0,0 +1,14 @@
+-- Every authenticated request looks a user up by username.
+-- The user table is read-mostly, so its index pages are packed full.
+CREATE UNIQUE INDEX IF NOT EXISTS devdojo_user_username_uidx
+    ON devdojo_user (username) WITH (fillfactor = 100);
+
+ALTER TABLE anime ALTER COLUMN name SET NOT NULL;
+ALTER TABLE anime DROP CONSTRAINT IF EXISTS anime_name_length_chk;
+ALTER TABLE anime ADD CONSTRAINT anime_name_length_chk CHECK (char_length(name) BETWEEN 1 AND 255);
+
+CREATE INDEX IF NOT EXISTS anime_name_idx
+    ON anime (name) WITH (fillfactor = 90);
+
+-- Leave room on heap pages so updates of anime rows can stay HOT (no index churn).
+ALTER TABLE anime SET (fillfactor = 90);
@@ -0,0 +1,3 @@
+-- Optimistic locking: every UPDATE of an anime row checks and bumps its version.
+-- Existing rows start at 0, which is what Spring Data expects for a persisted entity.
+ALTER TABLE anime ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
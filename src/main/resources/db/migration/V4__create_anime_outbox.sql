@@ -0,0 +1,25 @@
+-- Transactional outbox: a row trigger records every change of anime in the same
+-- transaction as the change, whichever statement made it. OutboxRelay drains the table.
+CREATE TABLE IF NOT EXISTS anime_outbox (
+    id         BIGSERIAL PRIMARY KEY,
+    anime_id   INTEGER NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    payload    TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE OR REPLACE FUNCTION anime_outbox_capture() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO anime_outbox (anime_id, event_type, payload) VALUES (OLD.id, TG_OP, row_to_json(OLD)::text);
+        RETURN OLD;
+    END IF;
+    INSERT INTO anime_outbox (anime_id, event_type, payload) VALUES (NEW.id, TG_OP, row_to_json(NEW)::text);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS anime_outbox_capture ON anime;
+CREATE TRIGGER anime_outbox_capture
+    AFTER INSERT OR UPDATE OR DELETE ON anime
+    FOR EACH ROW EXECUTE FUNCTION anime_outbox_capture();
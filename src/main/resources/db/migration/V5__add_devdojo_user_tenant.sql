@@ -0,0 +1,5 @@
+-- Tenant of every user; its catalog lives in the tenant's schema (app.tenancy).
+-- Existing users belong to the default tenant, whose catalog is this schema.
+ALTER TABLE devdojo_user ADD COLUMN IF NOT EXISTS tenant VARCHAR(63) NOT NULL DEFAULT 'default';
+ALTER TABLE devdojo_user DROP CONSTRAINT IF EXISTS devdojo_user_tenant_chk;
+ALTER TABLE devdojo_user ADD CONSTRAINT devdojo_user_tenant_chk CHECK (tenant ~ '^[a-z][a-z0-9_]{0,62}$');
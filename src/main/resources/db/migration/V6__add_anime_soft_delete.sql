@@ -0,0 +1,30 @@
+-- Soft delete: deleting an anime only stamps deleted_at, every read skips stamped rows,
+-- and AnimePurger removes them in small batches later, when the database is quiet.
+ALTER TABLE anime ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMPTZ;
+
+-- Name lookups only ever want live rows; deleted ones stay out of the index.
+DROP INDEX IF EXISTS anime_name_idx;
+CREATE INDEX IF NOT EXISTS anime_name_live_idx
+    ON anime (name) WITH (fillfactor = 90) WHERE deleted_at IS NULL;
+
+-- The purge backlog, oldest first; small because purged rows leave it.
+CREATE INDEX IF NOT EXISTS anime_deleted_at_idx
+    ON anime (deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- To consumers of the outbox the soft delete is the delete; the purge that follows is not announced again.
+CREATE OR REPLACE FUNCTION anime_outbox_capture() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.deleted_at IS NULL THEN
+            INSERT INTO anime_outbox (anime_id, event_type, payload) VALUES (OLD.id, TG_OP, row_to_json(OLD)::text);
+        END IF;
+        RETURN OLD;
+    END IF;
+    IF TG_OP = 'UPDATE' AND NEW.deleted_at IS NOT NULL AND OLD.deleted_at IS NULL THEN
+        INSERT INTO anime_outbox (anime_id, event_type, payload) VALUES (NEW.id, 'DELETE', row_to_json(NEW)::text);
+        RETURN NEW;
+    END IF;
+    INSERT INTO anime_outbox (anime_id, event_type, payload) VALUES (NEW.id, TG_OP, row_to_json(NEW)::text);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,118 @@
+package com.sharshag.springwebfluxresearch.audit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AuditLogTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T10:15:30.123456Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("a full ring rejects instead of blocking and hands out events in order")
+    public void ring_RejectsWhenFull_AndDrainsInOrder() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(2);
+
+        Assertions.assertTrue(ring.offer(1));
+        Assertions.assertTrue(ring.offer(2));
+        Assertions.assertFalse(ring.offer(3));
+
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertEquals(2, ring.drain(drained::add, 10));
+        Assertions.assertEquals(List.of(1, 2), drained);
+        Assertions.assertTrue(ring.offer(3));
+    }
+
+    @Test
+    @DisplayName("events written across segment rotations read back in order")
+    public void writer_RotatesSegments_AndReaderKeepsOrder() throws Exception {
+        List<AuditEvent> events = events(20, NOW);
+
+        try (AuditLogWriter writer = new AuditLogWriter(directory, 256)) {
+            for (AuditEvent event : events) {
+                writer.append(event);
+            }
+        }
+
+        Assertions.assertTrue(AuditLogReader.segments(directory).size() > 1);
+        Assertions.assertEquals(events, AuditLogReader.read(directory).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("a reopened log appends after the records already written")
+    public void writer_ContinuesAfterExistingRecords_WhenReopened() throws Exception {
+        List<AuditEvent> events = events(3, NOW);
+
+        try (AuditLogWriter writer = new AuditLogWriter(directory, 4096)) {
+            writer.append(events.get(0));
+            writer.append(events.get(1));
+        }
+        try (AuditLogWriter writer = new AuditLogWriter(directory, 4096)) {
+            writer.append(events.get(2));
+        }
+
+        Assertions.assertEquals(events, AuditLogReader.read(directory).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("compaction drops expired events from closed segments only")
+    public void compact_DropsExpiredEvents_ExceptInNewestSegment() throws Exception {
+        List<AuditEvent> old = events(10, NOW.minus(Duration.ofDays(400)));
+        List<AuditEvent> recent = events(2, NOW);
+        try (AuditLogWriter writer = new AuditLogWriter(directory, 256)) {
+            for (AuditEvent event : old) {
+                writer.append(event);
+            }
+            for (AuditEvent event : recent) {
+                writer.append(event);
+            }
+        }
+        List<AuditEvent> newest = AuditLogReader.readSegment(last(AuditLogReader.segments(directory)));
+
+        int removed = AuditLogTool.compact(directory, NOW.minus(Duration.ofDays(365)));
+
+        List<AuditEvent> remaining = AuditLogReader.read(directory).collect(Collectors.toList());
+        Assertions.assertEquals(old.size() + recent.size() - remaining.size(), removed);
+        Assertions.assertTrue(remaining.containsAll(recent));
+        Assertions.assertTrue(remaining.containsAll(newest));
+    }
+
+    @Test
+    @DisplayName("recorded events reach the disk by the time the log stops")
+    public void record_WritesEvents_BeforeStopReturns() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditLog auditLog = new AuditLog(directory, 4096, 64, Duration.ofMillis(10), meterRegistry);
+        List<AuditEvent> events = events(5, NOW);
+
+        auditLog.start();
+        events.forEach(auditLog::record);
+        auditLog.stop();
+
+        Assertions.assertEquals(events, AuditLogReader.read(directory).collect(Collectors.toList()));
+        Assertions.assertEquals(5.0, meterRegistry.get("audit.events").tag("result", "written").counter().count());
+    }
+
+    private static List<AuditEvent> events(int count, Instant time) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new AuditEvent(time.plusSeconds(i), "devdojo", "POST", "/animes/" + i, 201, 1500 + i))
+            .collect(Collectors.toList());
+    }
+
+    private static Path last(List<Path> segments) {
+        return segments.get(segments.size() - 1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.sharshag.springwebfluxresearch.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.util.AnimeCreator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Two caches sharing one embedded shared tier and one bus stand in for two nodes.
+ */
+public class TieredAnimeCacheTest {
+
+    private final Anime anime = AnimeCreator.createValidAnime().withVersion(0L);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final MeterRegistry nodeOneMeters = new SimpleMeterRegistry();
+    private TieredAnimeCache nodeOne;
+    private TieredAnimeCache nodeTwo;
+
+    @BeforeEach
+    public void setup() {
+        SharedCache sharedCache = new InMemorySharedCache();
+        InvalidationBus invalidationBus = new LocalInvalidationBus();
+        nodeOne = node("node-1", sharedCache, invalidationBus, nodeOneMeters);
+        nodeTwo = node("node-2", sharedCache, invalidationBus, new SimpleMeterRegistry());
+        nodeOne.start();
+        nodeTwo.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeOne.stop();
+        nodeTwo.stop();
+    }
+
+    @Test
+    @DisplayName("a second read on the same node is served from the near cache")
+    public void get_ServesNearCopy_WhenReadTwice() {
+
+        StepVerifier.create(nodeOne.get(1, this::load).then(nodeOne.get(1, this::load)))
+            .expectNext(anime)
+            .verifyComplete();
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1.0, nodeOneMeters.get("anime.cache.gets")
+            .tag("tier", "near").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("a peer's first read is served from the shared tier")
+    public void get_ServesSharedCopy_WhenPeerLoadedIt() {
+
+        StepVerifier.create(nodeOne.get(1, this::load).then(nodeTwo.get(1, this::load)))
+            .expectNext(anime)
+            .verifyComplete();
+
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("an eviction drops the near copies of every node and the shared copy")
+    public void evict_ClearsPeers_WhenBroadcast() {
+
+        StepVerifier.create(nodeOne.get(1, this::load).then(nodeTwo.get(1, this::load)))
+            .expectNextCount(1)
+            .verifyComplete();
+        Assertions.assertEquals(1, nodeTwo.nearSize());
+
+        StepVerifier.create(nodeOne.evict(List.of(1)))
+            .verifyComplete();
+
+        Assertions.assertEquals(0, nodeOne.nearSize());
+        Assertions.assertEquals(0, nodeTwo.nearSize());
+        StepVerifier.create(nodeTwo.get(1, this::load))
+            .expectNext(anime)
+            .verifyComplete();
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("tenants neither share cached animes nor each other's evictions")
+    public void evict_LeavesOtherTenants_WhenIdsCollide() {
+
+        SharedCache sharedCache = new InMemorySharedCache();
+        InvalidationBus invalidationBus = new LocalInvalidationBus();
+        TieredAnimeCache acme = node("node-1", "acme", sharedCache, invalidationBus, new SimpleMeterRegistry());
+        TieredAnimeCache globex = node("node-2", "globex", sharedCache, invalidationBus, new SimpleMeterRegistry());
+        acme.start();
+        globex.start();
+        try {
+            StepVerifier.create(acme.get(1, this::load).then(globex.get(1, this::load)))
+                .expectNextCount(1)
+                .verifyComplete();
+            Assertions.assertEquals(2, loads.get());
+
+            StepVerifier.create(acme.evict(List.of(1)))
+                .verifyComplete();
+
+            Assertions.assertEquals(1, globex.nearSize());
+        } finally {
+            acme.stop();
+            globex.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("a load overtaken by a peer's eviction is cached in neither tier")
+    public void get_SkipsBothTiers_WhenEvictedDuringLoad() {
+
+        StepVerifier.create(nodeOne.get(1, () -> nodeTwo.evict(List.of(1)).then(load())))
+            .expectNext(anime)
+            .verifyComplete();
+
+        Assertions.assertEquals(0, nodeOne.nearSize());
+        StepVerifier.create(nodeTwo.get(1, this::load))
+            .expectNext(anime)
+            .verifyComplete();
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("ids the loader did not find are not cached")
+    public void get_DoesNotCache_WhenLoaderIsEmpty() {
+
+        StepVerifier.create(nodeOne.get(2, () -> Mono.<Anime>empty()))
+            .verifyComplete();
+
+        Assertions.assertEquals(0, nodeOne.nearSize());
+    }
+
+    private Mono<Anime> load() {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return anime;
+        });
+    }
+
+    private static TieredAnimeCache node(String origin, SharedCache sharedCache, InvalidationBus invalidationBus,
+            MeterRegistry meterRegistry) {
+        return node(origin, "default", sharedCache, invalidationBus, meterRegistry);
+    }
+
+    private static TieredAnimeCache node(String origin, String tenant, SharedCache sharedCache,
+            InvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        return new TieredAnimeCache(origin, tenant, 100, Duration.ofMinutes(1), sharedCache, Duration.ofMinutes(1),
+            invalidationBus, new ObjectMapper(), meterRegistry);
+    }
+}
@@ -0,0 +1,170 @@
+package com.sharshag.springwebfluxresearch.chaos;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The database is a stand-in: a mocked connection whose statements stream
+ * 100 rows, so every fault can be observed without Postgres.
+ */
+@ExtendWith(MockitoExtension.class)
+public class FaultInjectingConnectionFactoryTest {
+
+    private static final String FIND_ALL = "SELECT * FROM anime WHERE deleted_at IS NULL";
+
+    @Mock
+    private ConnectionFactory connectionFactoryMock;
+
+    @Mock
+    private Connection connectionMock;
+
+    @Mock
+    private Statement statementMock;
+
+    @Mock
+    private Result resultMock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("failed acquisitions never reach the database")
+    public void create_Fails_WhenAcquireFailureRateIsOne() {
+        FaultInjectingConnectionFactory factory = factory(1.0, List.of());
+
+        StepVerifier.create(factory.create())
+            .expectError(R2dbcTransientResourceException.class)
+            .verify();
+
+        Mockito.verifyNoInteractions(connectionFactoryMock);
+        Assertions.assertEquals(1.0, faults("acquire-failure"));
+    }
+
+    @Test
+    @DisplayName("matching statements are delayed by their latency before they execute")
+    public void execute_DelaysStatement_WhenLatencyMatches() {
+        standIn();
+        FaultInjectingConnectionFactory factory = factory(0, List.of(
+            fault(new Latency(Latency.Distribution.FIXED, Duration.ofSeconds(2), Duration.ZERO), 0, 0, 0)));
+
+        StepVerifier.withVirtualTime(() -> rows(factory, FIND_ALL).count())
+            .expectSubscription()
+            .expectNoEvent(Duration.ofSeconds(2))
+            .expectNext(100L)
+            .verifyComplete();
+        Assertions.assertEquals(1.0, faults("latency"));
+    }
+
+    @Test
+    @DisplayName("a failed statement errors without being sent to the database")
+    public void execute_Fails_WhenFailureRateIsOne() {
+        standIn();
+        FaultInjectingConnectionFactory factory = factory(0, List.of(fault(Latency.NONE, 1.0, 0, 0)));
+
+        StepVerifier.create(rows(factory, FIND_ALL))
+            .expectError(R2dbcTransientResourceException.class)
+            .verify();
+
+        BDDMockito.verify(statementMock, Mockito.never()).execute();
+    }
+
+    @Test
+    @DisplayName("a dropped stream fails like a lost connection after the configured rows")
+    public void execute_DropsRows_WhenDropRateIsOne() {
+        standIn();
+        FaultInjectingConnectionFactory factory = factory(0, List.of(fault(Latency.NONE, 0, 1.0, 0)));
+
+        StepVerifier.create(rows(factory, FIND_ALL))
+            .expectNextCount(10)
+            .expectError(R2dbcNonTransientResourceException.class)
+            .verify();
+    }
+
+    @Test
+    @DisplayName("a truncated stream completes early without an error")
+    public void execute_TruncatesRows_WhenTruncateRateIsOne() {
+        standIn();
+        FaultInjectingConnectionFactory factory = factory(0, List.of(fault(Latency.NONE, 0, 0, 1.0)));
+
+        StepVerifier.create(rows(factory, FIND_ALL))
+            .expectNextCount(10)
+            .verifyComplete();
+        Assertions.assertEquals(1.0, faults("truncate"));
+    }
+
+    @Test
+    @DisplayName("statements no fault matches pass through untouched")
+    public void execute_PassesThrough_WhenNoFaultMatches() {
+        standIn();
+        FaultInjectingConnectionFactory factory = factory(0, List.of(fault(Latency.NONE, 1.0, 1.0, 1.0)));
+
+        StepVerifier.create(rows(factory, "SELECT * FROM devdojo_user WHERE username = $1"))
+            .expectNextCount(100)
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("latency samples stay within the distribution's bounds")
+    public void sample_StaysWithinBounds() {
+        Latency uniform = new Latency(Latency.Distribution.UNIFORM, Duration.ofMillis(10), Duration.ofMillis(5));
+        Latency exponential = new Latency(Latency.Distribution.EXPONENTIAL, Duration.ofMillis(10), Duration.ofMillis(5));
+
+        for (int i = 0; i < 10_000; i++) {
+            Duration u = uniform.sample();
+            Duration e = exponential.sample();
+            Assertions.assertTrue(u.compareTo(Duration.ofMillis(10)) >= 0 && u.compareTo(Duration.ofMillis(15)) < 0, u::toString);
+            Assertions.assertTrue(e.compareTo(Duration.ofMillis(10)) >= 0
+                && e.compareTo(Duration.ofMillis(10 + 5 * Latency.MAX_SPREADS)) <= 0, e::toString);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void standIn() {
+        BDDMockito.doReturn(Mono.just(connectionMock)).when(connectionFactoryMock).create();
+        BDDMockito.when(connectionMock.createStatement(ArgumentMatchers.anyString())).thenReturn(statementMock);
+        BDDMockito.lenient().doReturn(Flux.just(resultMock)).when(statementMock).execute();
+        BDDMockito.lenient().doReturn(Flux.range(1, 100)).when(resultMock).map(ArgumentMatchers.any(BiFunction.class));
+    }
+
+    private Flux<Integer> rows(FaultInjectingConnectionFactory factory, String sql) {
+        return factory.create()
+            .flatMapMany(connection -> connection.createStatement(sql).execute())
+            .flatMap(result -> result.map((row, metadata) -> row.get(0, Integer.class)));
+    }
+
+    private FaultInjectingConnectionFactory factory(double acquireFailureRate, List<StatementFault> statementFaults) {
+        return new FaultInjectingConnectionFactory(connectionFactoryMock, Latency.NONE, acquireFailureRate,
+            statementFaults, meterRegistry);
+    }
+
+    private static StatementFault fault(Latency latency, double failureRate, double dropRate, double truncateRate) {
+        return new StatementFault(Pattern.compile("FROM anime\\b"), latency, failureRate, dropRate, truncateRate, 10);
+    }
+
+    private double faults(String fault) {
+        return meterRegistry.get("r2dbc.chaos.faults").tag("fault", fault).counter().count();
+    }
+}
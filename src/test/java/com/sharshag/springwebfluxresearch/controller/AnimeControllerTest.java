@@ -14,11 +14,16 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimeLookup;
+import com.sharshag.springwebfluxresearch.domain.AnimePatch;
 import com.sharshag.springwebfluxresearch.service.AnimeService;
 import com.sharshag.springwebfluxresearch.util.AnimeCreator;
 
@@ -84,20 +89,56 @@ public class AnimeControllerTest {
 
         BDDMockito.when(animeServiceMock.findById(1)).thenReturn(Mono.just(anime));
 
-        StepVerifier.create(animeController.findById(1))
+        StepVerifier.create(animeController.findById(1, exchange(1)))
                 .expectSubscription()
                 .expectNext(anime)
                 .verifyComplete();
 
     }
 
+    @Test
+    @DisplayName("findById returns an empty Mono and 304 when the ETag still matches")
+    public void findById_ReturnEmptyMono_WhenNotModified() {
+
+        BDDMockito.when(animeServiceMock.findById(1)).thenReturn(Mono.just(anime));
+        MockServerWebExchange first = exchange(1);
+
+        StepVerifier.create(animeController.findById(1, first))
+                .expectNext(anime)
+                .verifyComplete();
+
+        String etag = first.getResponse().getHeaders().getETag();
+        MockServerWebExchange revalidation = MockServerWebExchange.from(MockServerHttpRequest.get("/animes/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        StepVerifier.create(animeController.findById(1, revalidation))
+                .verifyComplete();
+
+        Assertions.assertNotNull(etag);
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, revalidation.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("findAllByIds returns a lookup per requested id")
+    public void findAllByIds_ReturnFluxOfLookups_WhenSuccessful() {
+
+        BDDMockito.when(animeServiceMock.findAllByIds(List.of(1, 2)))
+                .thenReturn(Flux.just(AnimeLookup.found(anime), AnimeLookup.missing(2)));
+
+        StepVerifier.create(animeController.findAllByIds(List.of(1, 2)))
+                .expectSubscription()
+                .expectNext(AnimeLookup.found(anime), AnimeLookup.missing(2))
+                .verifyComplete();
+
+    }
+
     @Test
     @DisplayName("findById returns Mono error when anime doesn't exist")
     public void findById_ReturnMonoOfError_WhenUnSuccessful() {
 
         BDDMockito.when(animeServiceMock.findById(2)).thenReturn(Mono.error(new RuntimeException()));
 
-        StepVerifier.create(animeController.findById(2))
+        StepVerifier.create(animeController.findById(2, exchange(2)))
                 .expectSubscription()
                 .expectError()
                 .verify();
@@ -112,7 +153,7 @@ public class AnimeControllerTest {
         BDDMockito.when(animeServiceMock.save(animeToBeSaved))
                 .thenReturn(Mono.just(animeToBeSaved));
 
-        StepVerifier.create(animeController.save(animeToBeSaved))
+        StepVerifier.create(animeController.save(animeToBeSaved, null))
                 .expectSubscription()
                 .expectNext(animeToBeSaved)
                 .verifyComplete();
@@ -127,7 +168,7 @@ public class AnimeControllerTest {
         BDDMockito.when(animeServiceMock.saveAll(List.of(animeToBeSaved)))
                 .thenReturn(Flux.fromIterable(List.of(animeToBeSaved)));
 
-        StepVerifier.create(animeController.save(List.of(animeToBeSaved)))
+        StepVerifier.create(animeController.save(List.of(animeToBeSaved), null))
                 .expectSubscription()
                 .expectNext(animeToBeSaved)
                 .verifyComplete();
@@ -143,7 +184,7 @@ public class AnimeControllerTest {
         BDDMockito.when(animeServiceMock.saveAll(ArgumentMatchers.anyList()))
                 .thenReturn(Flux.just(animeToBeSaved).concatWith(Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST))));
 
-        StepVerifier.create(animeController.save(List.of(animeToBeSaved, animeToBeSaved.withName(""))))
+        StepVerifier.create(animeController.save(List.of(animeToBeSaved, animeToBeSaved.withName("")), null))
                 .expectSubscription()
                 .expectNext(animeToBeSaved)
                 .expectError(ResponseStatusException.class)
@@ -171,7 +212,7 @@ public class AnimeControllerTest {
 
         BDDMockito.when(animeServiceMock.save(updatedAnime)).thenReturn(Mono.just(updatedAnime));
 
-        StepVerifier.create(animeController.save(updatedAnime))
+        StepVerifier.create(animeController.save(updatedAnime, null))
                 .expectSubscription()
                 .expectNext(updatedAnime)
                 // .expectNextCount(1)
@@ -192,4 +233,22 @@ public class AnimeControllerTest {
                 .expectSubscription()
                 .verifyComplete();
     }
+
+    @Test
+    @DisplayName("patch returns the patched anime when successful")
+    public void patch_ReturnMonoOfAnime_WhenSuccessful() {
+
+        AnimePatch patch = AnimePatch.builder().version(0L).name("Patched").build();
+        Anime patched = anime.withName("Patched").withVersion(1L);
+        BDDMockito.when(animeServiceMock.patch(1, patch)).thenReturn(Mono.just(patched));
+
+        StepVerifier.create(animeController.patch(1, patch))
+                .expectSubscription()
+                .expectNext(patched)
+                .verifyComplete();
+    }
+
+    private static MockServerWebExchange exchange(int id) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/animes/{id}", id));
+    }
 }
@@ -0,0 +1,112 @@
+package com.sharshag.springwebfluxresearch.eventloop;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposables;
+
+public class EventLoopWatchdogTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService loop;
+    private MeterRegistry meterRegistry;
+    private EventLoopWatchdog watchdog;
+
+    @BeforeEach
+    public void setup() {
+        loop = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-loop"));
+        meterRegistry = new SimpleMeterRegistry();
+        LoopProbe probe = new LoopProbe("test-0", loop, () -> 3, Disposables.disposed());
+        watchdog = new EventLoopWatchdog(List.of(probe), Duration.ofMillis(10), Duration.ofMillis(50), 1,
+            meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        watchdog.close();
+        loop.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("a probe that runs promptly records its latency and no stall")
+    public void sample_RecordsLatency_WhenLoopIsIdle() throws Exception {
+
+        watchdog.sample();
+        awaitProbe();
+
+        Assertions.assertEquals(1, meterRegistry.get("eventloop.task.latency").tag("loop", "test-0").timer().count());
+        Assertions.assertEquals("test-loop", watchdog.getProbes().get(0).getThreadName());
+        Assertions.assertTrue(watchdog.getStalls().isEmpty());
+    }
+
+    @Test
+    @DisplayName("a probe held past the threshold is reported once with the blocked thread's stack")
+    public void sample_CapturesStack_WhenLoopIsBlocked() throws Exception {
+
+        watchdog.sample();
+        awaitProbe();
+        loop.execute(this::blockLoop);
+
+        watchdog.sample();
+        Thread.sleep(100);
+        watchdog.sample();
+        watchdog.sample();
+
+        List<StallEvent> stalls = watchdog.getStalls();
+        Assertions.assertEquals(1, stalls.size());
+        Assertions.assertEquals("test-loop", stalls.get(0).getThread());
+        Assertions.assertEquals(3, stalls.get(0).getPendingTasks());
+        Assertions.assertTrue(stalls.get(0).getBlockedForMillis() >= 50);
+        Assertions.assertTrue(stalls.get(0).getStackTrace().stream().anyMatch(frame -> frame.contains("blockLoop")));
+        Assertions.assertEquals(1.0, meterRegistry.get("eventloop.stalls").tag("loop", "test-0").counter().count());
+    }
+
+    @Test
+    @DisplayName("only the configured number of stalls is retained")
+    public void sample_KeepsLatestStalls_WhenRetentionIsExceeded() throws Exception {
+
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch blocked = new CountDownLatch(1);
+            loop.execute(() -> awaitQuietly(blocked));
+            watchdog.sample();
+            Thread.sleep(100);
+            watchdog.sample();
+            blocked.countDown();
+            awaitProbe();
+        }
+
+        Assertions.assertEquals(1, watchdog.getStalls().size());
+        Assertions.assertEquals(2, watchdog.getProbes().get(0).getStalls());
+    }
+
+    private void blockLoop() {
+        awaitQuietly(release);
+    }
+
+    private void awaitProbe() throws InterruptedException {
+        CountDownLatch drained = new CountDownLatch(1);
+        loop.execute(drained::countDown);
+        Assertions.assertTrue(drained.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
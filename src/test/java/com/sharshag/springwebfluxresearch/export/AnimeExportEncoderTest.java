@@ -0,0 +1,90 @@
+package com.sharshag.springwebfluxresearch.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class AnimeExportEncoderTest {
+
+    private final AnimeExportEncoder encoder = new AnimeExportEncoder(new ObjectMapper(), 2);
+
+    private final List<Anime> animes = List.of(
+        new Anime(1, "Tensei Shitara Slime Datta Ken", null),
+        new Anime(2, "Hunter, \"x\" Hunter", null),
+        new Anime(3, "Naruto", null));
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @Test
+    @DisplayName("csv export writes a header and one chunk per batch of rows")
+    public void encode_WritesCsvInChunks_WhenFormatIsCsv() {
+
+        StepVerifier.create(encoder.encode(Flux.fromIterable(animes), ExportFormat.CSV, false, new DefaultDataBufferFactory())
+                .map(this::asString))
+            .expectNext("id,name\n")
+            .expectNext("1,Tensei Shitara Slime Datta Ken\n2,\"Hunter, \"\"x\"\" Hunter\"\n")
+            .expectNext("3,Naruto\n")
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("ndjson export writes one json document per line")
+    public void encode_WritesNdjson_WhenFormatIsNdjson() {
+
+        StepVerifier.create(encoder.encode(Flux.fromIterable(animes.subList(0, 1)), ExportFormat.NDJSON, false,
+                new DefaultDataBufferFactory()).map(this::asString))
+            .expectNext("{\"id\":1,\"name\":\"Tensei Shitara Slime Datta Ken\"}\n")
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("gzip export concatenates into a single valid gzip stream")
+    public void encode_ProducesValidGzip_WhenGzipIsRequested() throws IOException {
+
+        byte[] compressed = encoder.encode(Flux.fromIterable(animes), ExportFormat.CSV, true, new DefaultDataBufferFactory())
+            .map(this::asBytes)
+            .reduce(new ByteArrayOutputStream(), (out, bytes) -> {
+                out.writeBytes(bytes);
+                return out;
+            })
+            .map(ByteArrayOutputStream::toByteArray)
+            .block();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            Assertions.assertEquals("id,name\n1,Tensei Shitara Slime Datta Ken\n2,\"Hunter, \"\"x\"\" Hunter\"\n3,Naruto\n",
+                new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private String asString(DataBuffer buffer) {
+        return new String(asBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private byte[] asBytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}
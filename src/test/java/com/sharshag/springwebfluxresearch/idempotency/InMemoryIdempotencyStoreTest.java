@@ -0,0 +1,121 @@
+package com.sharshag.springwebfluxresearch.idempotency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.config.IdempotencyProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.util.AnimeCreator;
+
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class InMemoryIdempotencyStoreTest {
+
+    private final Anime anime = AnimeCreator.createAnimeToBeSaved();
+    private final AtomicInteger writes = new AtomicInteger();
+    private InMemoryIdempotencyStore store;
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setup() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxEntries(2);
+        store = new InMemoryIdempotencyStore(properties, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("a retried request replays the original response without writing again")
+    public void execute_ReplaysResult_WhenKeyIsReused() {
+
+        StepVerifier.create(store.execute("key-1", "POST /animes", anime, this::save)
+                .then(store.execute("key-1", "POST /animes", anime, this::save)))
+            .expectNext(anime.withId(1))
+            .verifyComplete();
+
+        Assertions.assertEquals(1, writes.get());
+    }
+
+    @Test
+    @DisplayName("concurrent duplicates wait for the in-flight write")
+    public void execute_SharesInFlightWrite_WhenDuplicatesArriveConcurrently() {
+
+        Mono<Anime> slowSave = Mono.defer(this::save).delayElement(Duration.ofMillis(100));
+
+        StepVerifier.create(Mono.zip(
+                store.execute("key-1", "POST /animes", anime, () -> slowSave),
+                store.execute("key-1", "POST /animes", anime, () -> slowSave)))
+            .assertNext(results -> Assertions.assertSame(results.getT1(), results.getT2()))
+            .verifyComplete();
+
+        Assertions.assertEquals(1, writes.get());
+    }
+
+    @Test
+    @DisplayName("reusing a key for a different payload is rejected")
+    public void execute_ReturnsError_WhenPayloadDiffers() {
+
+        StepVerifier.create(store.execute("key-1", "POST /animes", anime, this::save)
+                .then(store.execute("key-1", "POST /animes", anime.withName("Other"), this::save)))
+            .expectError(ResponseStatusException.class)
+            .verify();
+    }
+
+    @Test
+    @DisplayName("failed writes are not remembered so the client can retry")
+    public void execute_RunsAgain_WhenPreviousAttemptFailed() {
+
+        StepVerifier.create(store.execute("key-1", "POST /animes", anime, () -> Mono.<Anime>error(new IllegalStateException())))
+            .expectError(IllegalStateException.class)
+            .verify();
+
+        StepVerifier.create(store.execute("key-1", "POST /animes", anime, this::save))
+            .expectNext(anime.withId(1))
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("the store never holds more than the configured number of keys")
+    public void execute_EvictsOldestKey_WhenFull() {
+
+        StepVerifier.create(store.execute("key-1", "POST /animes", anime, this::save)
+                .then(store.execute("key-2", "POST /animes", anime, this::save))
+                .then(store.execute("key-3", "POST /animes", anime, this::save)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Assertions.assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("an expired key is forgotten and runs the action again")
+    public void execute_RunsAgain_WhenKeyExpired() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ZERO);
+        store = new InMemoryIdempotencyStore(properties, new ObjectMapper());
+
+        StepVerifier.create(store.execute("key-1", "POST /animes", anime, this::save)
+                .then(store.execute("key-1", "POST /animes", anime.withName("Other"), this::save)))
+            .expectNext(anime.withId(2))
+            .verifyComplete();
+
+        Assertions.assertEquals(1, store.size());
+    }
+
+    private Mono<Anime> save() {
+        return Mono.fromSupplier(() -> anime.withId(writes.incrementAndGet()));
+    }
+}
@@ -0,0 +1,141 @@
+package com.sharshag.springwebfluxresearch.importer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.config.ImportProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.export.AnimeExportEncoder;
+import com.sharshag.springwebfluxresearch.export.ExportFormat;
+import com.sharshag.springwebfluxresearch.service.AnimeImportService;
+import com.sharshag.springwebfluxresearch.service.AnimeService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+public class AnimeImportServiceTest {
+
+    @TempDir
+    Path rejectDirectory;
+
+    private AnimeService animeServiceMock;
+    private AnimeImportService animeImportService;
+
+    @BeforeEach
+    public void setup() {
+        ImportProperties importProperties = new ImportProperties();
+        importProperties.setBatchSize(2);
+        importProperties.setRejectDirectory(rejectDirectory);
+        importProperties.setUploadDirectory(rejectDirectory.resolve("uploads"));
+
+        animeServiceMock = Mockito.mock(AnimeService.class);
+        BDDMockito.when(animeServiceMock.saveAll(ArgumentMatchers.anyList()))
+            .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Anime>>getArgument(0)));
+
+        animeImportService = new AnimeImportService(animeServiceMock, new ImportJobRegistry(importProperties),
+            importProperties, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("csv import splits lines across buffers, imports valid rows and rejects the rest")
+    public void importAnimes_ImportsValidRowsAndRejectsInvalid_WhenCsvIsUploaded() throws IOException {
+
+        Flux<DataBuffer> body = buffers("id,name\n1,Nar", "uto\n2,\n3,\"One, Piece\"\r\n4,Bleach\n");
+
+        ImportJob job = animeImportService.importAnimes(body, ExportFormat.CSV, -1)
+            .flatMap(ImportJob::whenFinished)
+            .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        Assertions.assertEquals(4, job.getRowsRead());
+        Assertions.assertEquals(3, job.getRowsImported());
+        Assertions.assertEquals(1, job.getRowsRejected());
+
+        Mockito.verify(animeServiceMock).saveAll(List.of(anime("Naruto")));
+        Mockito.verify(animeServiceMock).saveAll(List.of(anime("One, Piece"), anime("Bleach")));
+        List<String> rejects = Files.readAllLines(rejectDirectory.resolve(job.getId() + ".rejects"));
+        Assertions.assertEquals(1, rejects.size());
+        Assertions.assertTrue(rejects.get(0).startsWith("3\tname: "));
+    }
+
+    @Test
+    @DisplayName("ndjson import rejects malformed lines without failing the job")
+    public void importAnimes_RejectsMalformedJson_WhenNdjsonIsUploaded() {
+
+        Flux<DataBuffer> body = buffers("{\"name\":\"Naruto\"}\n{\"name\":\n");
+
+        StepVerifier.create(animeImportService.importAnimes(body, ExportFormat.NDJSON, 27).flatMap(ImportJob::whenFinished))
+            .assertNext(job -> {
+                Assertions.assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+                Assertions.assertEquals(1, job.getRowsImported());
+                Assertions.assertEquals(1, job.getRowsRejected());
+                Assertions.assertEquals(1.0, job.getProgress());
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("an ndjson export re-imports as new animes without the exported ids and versions")
+    public void importAnimes_InsertsExportedRows_WhenExportIsReimported() {
+
+        Flux<DataBuffer> export = new AnimeExportEncoder(new ObjectMapper(), 500)
+            .encode(Flux.just(new Anime(1, "Naruto", 3L), new Anime(2, "Bleach", 0L)), ExportFormat.NDJSON, false,
+                new DefaultDataBufferFactory());
+
+        StepVerifier.create(animeImportService.importAnimes(export, ExportFormat.NDJSON, -1).flatMap(ImportJob::whenFinished))
+            .assertNext(job -> {
+                Assertions.assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+                Assertions.assertEquals(2, job.getRowsImported());
+                Assertions.assertEquals(0, job.getRowsRejected());
+            })
+            .verifyComplete();
+
+        Mockito.verify(animeServiceMock).saveAll(List.of(anime("Naruto"), anime("Bleach")));
+    }
+
+    @Test
+    @DisplayName("the job is answered once the upload is received, while its rows are still being imported")
+    public void importAnimes_ReturnsRunningJob_BeforeRowsAreImported() {
+        Sinks.Empty<Void> saved = Sinks.empty();
+        BDDMockito.when(animeServiceMock.saveAll(ArgumentMatchers.anyList()))
+            .thenAnswer(invocation -> saved.asMono().thenMany(Flux.fromIterable(invocation.<List<Anime>>getArgument(0))));
+
+        ImportJob job = animeImportService.importAnimes(buffers("{\"name\":\"Naruto\"}\n"), ExportFormat.NDJSON, -1)
+            .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(ImportJob.Status.RUNNING, job.getStatus());
+        saved.tryEmitEmpty();
+        StepVerifier.create(job.whenFinished())
+            .assertNext(finished -> Assertions.assertEquals(1, finished.getRowsImported()))
+            .verifyComplete();
+        Assertions.assertFalse(Files.exists(rejectDirectory.resolve("uploads").resolve(job.getId() + ".upload")));
+    }
+
+    private Anime anime(String name) {
+        return Anime.builder().name(name).build();
+    }
+
+    private Flux<DataBuffer> buffers(String... chunks) {
+        return Flux.fromArray(chunks)
+            .map(chunk -> new DefaultDataBufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.sharshag.springwebfluxresearch.integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.sharshag.springwebfluxresearch.client.AnimeClient;
+import com.sharshag.springwebfluxresearch.client.AnimeClientProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimeLookup;
+import com.sharshag.springwebfluxresearch.repository.AnimeRepository;
+import com.sharshag.springwebfluxresearch.util.AnimeCreator;
+
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Drives the client against the application listening on a random port.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class AnimeClientIT {
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private AnimeRepository animeRepositoryMock;
+
+    private final Anime anime = AnimeCreator.createValidAnime();
+    private final Queue<HttpStatus> statuses = new ConcurrentLinkedQueue<>();
+    private AnimeClient userClient;
+    private AnimeClient adminClient;
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setup() {
+        userClient = client("harshaghanta", Duration.ZERO);
+        adminClient = client("devdojo", Duration.ZERO);
+
+        BDDMockito.when(animeRepositoryMock.findById(1))
+            .thenReturn(Mono.just(anime));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userClient.close();
+        adminClient.close();
+    }
+
+    @Test
+    public void findById_RevalidatesWithEtag_WhenCalledTwice() {
+
+        StepVerifier.create(userClient.findById(1).then(userClient.findById(1)))
+            .expectNext(anime)
+            .verifyComplete();
+
+        Assertions.assertEquals(List.of(HttpStatus.OK, HttpStatus.NOT_MODIFIED), List.copyOf(statuses));
+    }
+
+    @Test
+    public void findById_ReturnsNotFound_WhenAnimeDoesNotExist() {
+
+        BDDMockito.when(animeRepositoryMock.findById(5)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userClient.findById(5))
+            .expectError(WebClientResponseException.NotFound.class)
+            .verify();
+    }
+
+    @Test
+    public void findById_HedgedRequestWins_WhenFirstIsSlow() {
+
+        BDDMockito.when(animeRepositoryMock.findById(2))
+            .thenReturn(Mono.just(anime).delayElement(Duration.ofSeconds(5)), Mono.just(anime));
+
+        try (AnimeClient hedgingClient = client("harshaghanta", Duration.ofMillis(100))) {
+            StepVerifier.create(hedgingClient.findById(2))
+                .expectNext(anime)
+                .expectComplete()
+                .verify(Duration.ofSeconds(3));
+        }
+        Mockito.verify(animeRepositoryMock, Mockito.times(2)).findById(2);
+    }
+
+    @Test
+    public void listAll_StreamsAnimes_WhenAdmin() {
+
+        BDDMockito.when(animeRepositoryMock.findAll())
+            .thenReturn(Flux.just(anime, anime.withName("Thor")));
+
+        StepVerifier.create(adminClient.listAll())
+            .expectNext(anime, anime.withName("Thor"))
+            .verifyComplete();
+    }
+
+    @Test
+    public void findAllByIds_StreamsFoundAndMissing() {
+
+        BDDMockito.when(animeRepositoryMock.findAllById(ArgumentMatchers.<Iterable<Integer>>any()))
+            .thenReturn(Flux.just(anime));
+
+        StepVerifier.create(userClient.findAllByIds(List.of(anime.getId(), 99)))
+            .expectNext(AnimeLookup.found(anime), AnimeLookup.missing(99))
+            .verifyComplete();
+    }
+
+    @Test
+    public void save_WritesOnce_WhenIdempotencyKeyIsRepeated() {
+
+        Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+        BDDMockito.when(animeRepositoryMock.save(animeToBeSaved)).thenReturn(Mono.just(anime));
+
+        StepVerifier.create(adminClient.save(animeToBeSaved, "client-it-save")
+                .then(adminClient.save(animeToBeSaved, "client-it-save")))
+            .expectNext(anime)
+            .verifyComplete();
+
+        Mockito.verify(animeRepositoryMock, Mockito.times(1)).save(animeToBeSaved);
+    }
+
+    @Test
+    public void delete_Completes_WhenSuccessful() {
+
+        BDDMockito.when(animeRepositoryMock.deleteById(1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(adminClient.delete(1))
+            .verifyComplete();
+    }
+
+    private AnimeClient client(String username, Duration hedgeDelay) {
+        AnimeClientProperties properties = new AnimeClientProperties();
+        properties.setBaseUrl("http://localhost:" + port);
+        properties.setUsername(username);
+        properties.setPassword("devdojo");
+        properties.setHedgeDelay(hedgeDelay);
+        ExchangeFilterFunction recordStatus = ExchangeFilterFunction.ofResponseProcessor(response -> {
+            statuses.add(response.statusCode());
+            return Mono.just(response);
+        });
+        return new AnimeClient(properties, WebClient.builder().filter(recordStatus));
+    }
+}
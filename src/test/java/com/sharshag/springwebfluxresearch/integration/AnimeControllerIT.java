@@ -80,6 +80,9 @@ public class AnimeControllerIT {
         BDDMockito.when(animeRepositoryMock.findById(1))
             .thenReturn(Mono.just(anime));
 
+        BDDMockito.when(animeRepositoryMock.findAllById(ArgumentMatchers.<Iterable<Integer>>any()))
+            .thenReturn(Flux.just(anime));
+
 
 
     }
@@ -274,6 +277,15 @@ public class AnimeControllerIT {
             
     }
 
+    @Test
+    public void export_Should_Fail_With_UserRole() {
+
+        testClientUser.get()
+        .uri("/animes/export")
+        .exchange()
+        .expectStatus().isForbidden();
+    }
+
     @Test
     public void all_Post_API_Should__Fail_With_UserRole() {
         
@@ -0,0 +1,97 @@
+package com.sharshag.springwebfluxresearch.integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.sharshag.springwebfluxresearch.cache.AnimeCache;
+import com.sharshag.springwebfluxresearch.config.SaveAllProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.repository.AnimeRepository;
+import com.sharshag.springwebfluxresearch.service.AnimeService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throughput of the saveAll pipeline shapes against the real database, from
+ * 10 to 100k animes per call. Opt-in and slow:
+ * {@code mvn test -Dtest=SaveAllBenchmarkIT -Dbenchmarks=true}. Results are
+ * logged as one line per run; compare them on the same machine only.
+ */
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class SaveAllBenchmarkIT {
+
+    private static final String PREFIX = "saveall-benchmark-";
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @AfterEach
+    public void cleanUp() {
+        databaseClient.sql("DELETE FROM anime WHERE name LIKE :prefix")
+            .bind("prefix", PREFIX + "%")
+            .then()
+            .block(Duration.ofMinutes(5));
+    }
+
+    @ParameterizedTest(name = "{0} animes, concurrency {1}, ordered {2}, transactional {3}")
+    @CsvSource({
+        "10, 1, true, true",
+        "10, 8, false, false",
+        "100, 1, true, true",
+        "100, 8, false, false",
+        "1000, 1, true, true",
+        "1000, 8, true, false",
+        "1000, 8, false, false",
+        "10000, 1, true, true",
+        "10000, 8, true, false",
+        "10000, 8, false, false",
+        "100000, 1, true, true",
+        "100000, 8, true, false",
+        "100000, 8, false, false"
+    })
+    public void saveAll(int animes, int concurrency, boolean ordered, boolean transactional) {
+        SaveAllProperties properties = new SaveAllProperties();
+        properties.setConcurrency(concurrency);
+        properties.setOrdered(ordered);
+        properties.setTransactional(transactional);
+        AnimeService animeService = new AnimeService(animeRepository, AnimeCache.none(), r2dbcEntityTemplate,
+            properties, transactionalOperator);
+        List<Anime> batch = IntStream.range(0, animes)
+            .mapToObj(i -> Anime.builder().name(PREFIX + i).build())
+            .collect(Collectors.toList());
+
+        long started = System.nanoTime();
+        Long saved = animeService.saveAll(batch).count().block(Duration.ofMinutes(10));
+        long elapsedNanos = System.nanoTime() - started;
+
+        log.info("saveAll of {} animes, concurrency {}, ordered {}, transactional {}: {} ms, {} animes/s",
+            saved, concurrency, ordered, transactional, elapsedNanos / 1_000_000,
+            saved * 1_000_000_000L / Math.max(1, elapsedNanos));
+    }
+}
@@ -0,0 +1,74 @@
+package com.sharshag.springwebfluxresearch.integration;
+
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Checks against the migrated schema that the hot lookups can be answered from
+ * an index. Sequential scans are disabled for the transaction so the assertion
+ * holds on small test tables where the planner would otherwise prefer them.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+public class SchemaIndexIT {
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Test
+    public void findByUsername_UsesUniqueUsernameIndex() {
+        assertPlanUsesIndex("EXPLAIN SELECT * FROM devdojo_user WHERE username = 'devdojo'",
+            "devdojo_user_username_uidx");
+    }
+
+    @Test
+    public void findByName_UsesLiveAnimeNameIndex() {
+        assertPlanUsesIndex("EXPLAIN SELECT * FROM anime WHERE name = 'Naruto' AND deleted_at IS NULL",
+            "anime_name_live_idx");
+    }
+
+    @Test
+    public void purgeBacklog_UsesDeletedAtIndex() {
+        assertPlanUsesIndex("EXPLAIN SELECT id FROM anime WHERE deleted_at < now() ORDER BY deleted_at LIMIT 100",
+            "anime_deleted_at_idx");
+    }
+
+    @Test
+    public void findById_UsesPrimaryKey() {
+        assertPlanUsesIndex("EXPLAIN SELECT * FROM anime WHERE id = 1", "anime_pkey");
+    }
+
+    private void assertPlanUsesIndex(String explain, String index) {
+        // SET LOCAL inside a transaction that is always rolled back, so the
+        // pooled connection goes back with sequential scans enabled
+        Flux<String> plan = Flux.usingWhen(connectionFactory.create(),
+            connection -> Flux.usingWhen(Mono.from(connection.beginTransaction()).thenReturn(connection),
+                tx -> execute(tx, "SET LOCAL enable_seqscan = off")
+                    .thenMany(Flux.from(tx.createStatement(explain).execute())
+                        .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))),
+                Connection::rollbackTransaction),
+            Connection::close);
+
+        StepVerifier.create(plan.collect(Collectors.joining("\n")))
+            .assertNext(lines -> Assertions.assertTrue(lines.contains(index), lines))
+            .verifyComplete();
+    }
+
+    private Flux<Integer> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+            .flatMap(Result::getRowsUpdated);
+    }
+}
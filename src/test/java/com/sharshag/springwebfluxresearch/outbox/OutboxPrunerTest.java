@@ -0,0 +1,64 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.r2dbc.core.FetchSpec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxPrunerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Mock
+    private DatabaseClient databaseClientMock;
+
+    @Mock
+    private GenericExecuteSpec pruneSpecMock;
+
+    @Mock
+    private FetchSpec<Map<String, Object>> pruneFetchMock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("expired events are deleted batch by batch until a batch comes back short, for every tenant")
+    public void prune_DeletesExpiredEventsUntilBatchIsShort() {
+        BDDMockito.when(databaseClientMock.sql(ArgumentMatchers.startsWith("DELETE"))).thenReturn(pruneSpecMock);
+        BDDMockito.when(pruneSpecMock.bind(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenReturn(pruneSpecMock);
+        BDDMockito.when(pruneSpecMock.fetch()).thenReturn(pruneFetchMock);
+        BDDMockito.when(pruneFetchMock.rowsUpdated()).thenReturn(Mono.just(10), Mono.just(4), Mono.just(0));
+
+        OutboxPruner pruner = new OutboxPruner(databaseClientMock, List.of("default", "acme"),
+            Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofMinutes(1), Duration.ofHours(1), 10, meterRegistry);
+
+        StepVerifier.create(pruner.prune())
+            .expectNext(14L)
+            .verifyComplete();
+
+        BDDMockito.verify(pruneSpecMock, Mockito.times(3))
+            .bind("cutoff", OffsetDateTime.ofInstant(NOW.minus(Duration.ofHours(1)), ZoneOffset.UTC));
+        Assertions.assertEquals(14.0, meterRegistry.get("outbox.pruned").counter().count());
+    }
+}
@@ -0,0 +1,56 @@
+package com.sharshag.springwebfluxresearch.outbox;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.test.StepVerifier;
+
+public class OutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final OutboxEvent inserted =
+        new OutboxEvent(1, 7, "INSERT", "{\"id\":7,\"name\":\"Kaiji\",\"version\":0}", Instant.EPOCH);
+    private final OutboxEvent deleted =
+        new OutboxEvent(2, 7, "DELETE", "{\"id\":7,\"name\":\"Kaiji\",\"version\":0}", Instant.EPOCH);
+
+    @Test
+    @DisplayName("file sink appends one JSON line per event across batches")
+    public void fileSink_AppendsOneLinePerEvent(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("nested/events.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+
+        StepVerifier.create(sink.deliver(List.of(inserted)).then(sink.deliver(List.of(deleted))))
+            .verifyComplete();
+
+        List<String> lines = Files.readAllLines(file);
+        Assertions.assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        Assertions.assertEquals(1, first.get("id").asLong());
+        Assertions.assertEquals("INSERT", first.get("type").asText());
+        Assertions.assertEquals(7, first.get("animeId").asInt());
+        Assertions.assertEquals("DELETE", objectMapper.readTree(lines.get(1)).get("type").asText());
+    }
+
+    @Test
+    @DisplayName("memory sink keeps only the most recent events up to its capacity")
+    public void memorySink_DropsOldestBeyondCapacity() {
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(1);
+
+        StepVerifier.create(sink.deliver(Arrays.asList(inserted, deleted)))
+            .verifyComplete();
+
+        Assertions.assertEquals(List.of(deleted), sink.getEvents());
+    }
+}
@@ -0,0 +1,101 @@
+package com.sharshag.springwebfluxresearch.purge;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.r2dbc.core.FetchSpec;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+public class AnimePurgerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    @Mock
+    private DatabaseClient databaseClientMock;
+
+    @Mock
+    private GenericExecuteSpec purgeSpecMock;
+
+    @Mock
+    private GenericExecuteSpec backlogSpecMock;
+
+    @Mock
+    private FetchSpec<Map<String, Object>> purgeFetchMock;
+
+    @Mock
+    private RowsFetchSpec<Long> backlogFetchMock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private AnimePurger animePurger;
+
+    @BeforeEach
+    public void setup() {
+        animePurger = new AnimePurger(databaseClientMock, List.of("default", "acme"), inFlight::get,
+            Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofSeconds(1), Duration.ofHours(1), 100, 2, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("a quiet tick purges one batch of rows older than the retention per tenant")
+    @SuppressWarnings("unchecked")
+    public void purge_DeletesOneBatchPerTenant_WhenQuiet() {
+        BDDMockito.when(databaseClientMock.sql(ArgumentMatchers.startsWith("DELETE"))).thenReturn(purgeSpecMock);
+        BDDMockito.when(purgeSpecMock.bind(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenReturn(purgeSpecMock);
+        BDDMockito.when(purgeSpecMock.fetch()).thenReturn(purgeFetchMock);
+        BDDMockito.when(purgeFetchMock.rowsUpdated()).thenReturn(Mono.just(100), Mono.just(3));
+        BDDMockito.when(databaseClientMock.sql(ArgumentMatchers.startsWith("SELECT"))).thenReturn(backlogSpecMock);
+        BDDMockito.when(backlogSpecMock.map(ArgumentMatchers.any(BiFunction.class))).thenReturn(backlogFetchMock);
+        BDDMockito.when(backlogFetchMock.one()).thenReturn(Mono.just(250L), Mono.just(0L));
+
+        inFlight.set(2);
+        StepVerifier.create(animePurger.purge())
+            .expectNext(103L)
+            .verifyComplete();
+
+        BDDMockito.verify(purgeSpecMock, Mockito.times(2))
+            .bind("cutoff", OffsetDateTime.ofInstant(NOW.minus(Duration.ofHours(1)), ZoneOffset.UTC));
+        BDDMockito.verify(purgeSpecMock, Mockito.times(2)).bind("batchSize", 100);
+        Assertions.assertEquals(100.0, meterRegistry.get("anime.purge.rows").tag("tenant", "default").counter().count());
+        Assertions.assertEquals(3.0, meterRegistry.get("anime.purge.rows").tag("tenant", "acme").counter().count());
+        Assertions.assertEquals(250.0, meterRegistry.get("anime.purge.backlog").tag("tenant", "default").gauge().value());
+        Assertions.assertEquals(0.0, meterRegistry.get("anime.purge.backlog").tag("tenant", "acme").gauge().value());
+    }
+
+    @Test
+    @DisplayName("a tick is skipped without touching the database while requests are in flight")
+    public void purge_Defers_WhenBusy() {
+
+        inFlight.set(3);
+        StepVerifier.create(animePurger.purge())
+            .expectNext(0L)
+            .verifyComplete();
+
+        Mockito.verifyNoInteractions(databaseClientMock);
+        Assertions.assertEquals(1.0, meterRegistry.get("anime.purge.deferred").counter().count());
+    }
+}
@@ -0,0 +1,126 @@
+package com.sharshag.springwebfluxresearch.r2dbc;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class ReadWriteRoutingConnectionFactoryTest {
+
+    private ConnectionFactory primaryMock;
+    private ConnectionFactory replicaOneMock;
+    private ConnectionFactory replicaTwoMock;
+    private ReplicaConnectionFactory replicaOne;
+    private ReplicaConnectionFactory replicaTwo;
+    private ReadWriteRoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setup() {
+        primaryMock = connectionFactoryMock();
+        replicaOneMock = connectionFactoryMock();
+        replicaTwoMock = connectionFactoryMock();
+        replicaOne = new ReplicaConnectionFactory("replica-0", replicaOneMock);
+        replicaTwo = new ReplicaConnectionFactory("replica-1", replicaTwoMock);
+        routingConnectionFactory = new ReadWriteRoutingConnectionFactory(primaryMock, List.of(replicaOne, replicaTwo),
+            new ReadYourWritesTracker(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("connections without a read-only marker go to the primary")
+    public void create_UsesPrimary_WhenNotReadOnly() {
+
+        StepVerifier.create(routingConnectionFactory.create())
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Mockito.verify(primaryMock).create();
+        Mockito.verifyNoInteractions(replicaOneMock, replicaTwoMock);
+    }
+
+    @Test
+    @DisplayName("read-only connections go to the replica with the fewest outstanding connections")
+    public void create_UsesLeastOutstandingReplica_WhenReadOnly() {
+
+        StepVerifier.create(readOnlyConnection().flatMap(first -> readOnlyConnection()))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Mockito.verify(replicaOneMock).create();
+        Mockito.verify(replicaTwoMock).create();
+        Mockito.verifyNoInteractions(primaryMock);
+    }
+
+    @Test
+    @DisplayName("closing a replica connection releases its outstanding slot")
+    public void close_DecrementsOutstanding_WhenConnectionIsReleased() {
+
+        StepVerifier.create(readOnlyConnection().flatMap(connection -> Mono.from(connection.close())))
+            .verifyComplete();
+
+        Assertions.assertEquals(0, replicaOne.getOutstanding());
+    }
+
+    @Test
+    @DisplayName("read-only connections fall back to the primary when no replica is healthy")
+    public void create_UsesPrimary_WhenReplicasAreUnhealthy() {
+
+        replicaOne.setHealthy(false);
+        replicaTwo.setHealthy(false);
+
+        StepVerifier.create(readOnlyConnection())
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Mockito.verify(primaryMock).create();
+    }
+
+    @Test
+    @DisplayName("a principal reads from the primary right after it wrote")
+    public void create_UsesPrimary_WhenPrincipalWroteRecently() {
+
+        TestingAuthenticationToken admin = new TestingAuthenticationToken("devdojo", "devdojo");
+
+        Mono<Connection> writeThenRead = routingConnectionFactory.create()
+            .then(readOnlyConnection())
+            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(admin));
+
+        StepVerifier.create(writeThenRead)
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Mockito.verify(primaryMock, Mockito.times(2)).create();
+        Mockito.verifyNoInteractions(replicaOneMock, replicaTwoMock);
+    }
+
+    private Mono<Connection> readOnlyConnection() {
+        return routingConnectionFactory.create()
+            .contextWrite(RoutingContext::readOnly);
+    }
+
+    private ConnectionFactory connectionFactoryMock() {
+        ConnectionFactory connectionFactory = Mockito.mock(ConnectionFactory.class);
+        Connection connection = Mockito.mock(Connection.class);
+        BDDMockito.doReturn(Mono.empty()).when(connection).close();
+        BDDMockito.doReturn(Mono.just(connection)).when(connectionFactory).create();
+        return connectionFactory;
+    }
+}
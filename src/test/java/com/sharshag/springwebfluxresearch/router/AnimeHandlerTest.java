@@ -0,0 +1,176 @@
+package com.sharshag.springwebfluxresearch.router;
+
+import java.util.List;
+
+import javax.validation.Validation;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sharshag.springwebfluxresearch.config.IdempotencyProperties;
+import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.idempotency.InMemoryIdempotencyStore;
+import com.sharshag.springwebfluxresearch.service.AnimeService;
+import com.sharshag.springwebfluxresearch.util.AnimeCreator;
+
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class AnimeHandlerTest {
+
+    private final Anime anime = AnimeCreator.createValidAnime();
+    private AnimeService animeServiceMock;
+    private WebTestClient testClient;
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setup() {
+        animeServiceMock = Mockito.mock(AnimeService.class);
+        AnimeHandler animeHandler = new AnimeHandler(animeServiceMock,
+            new InMemoryIdempotencyStore(new IdempotencyProperties(), new ObjectMapper()),
+            Validation.buildDefaultValidatorFactory().getValidator());
+        testClient = WebTestClient.bindToRouterFunction(new AnimeRouter().animeRoutes(animeHandler)).build();
+
+        BDDMockito.when(animeServiceMock.findAll()).thenReturn(Flux.just(anime));
+        BDDMockito.when(animeServiceMock.findById(1)).thenReturn(Mono.just(anime));
+    }
+
+    @Test
+    @DisplayName("GET /fn/animes lists all animes")
+    public void listAll_ReturnFluxOfAnime_WhenSuccessful() {
+
+        testClient.get()
+            .uri(AnimeRouter.BASE_PATH)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(Anime.class)
+            .contains(anime)
+            .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("GET /fn/animes/{id} returns the anime")
+    public void findById_ReturnMonoOfAnime_WhenSuccessful() {
+
+        testClient.get()
+            .uri(AnimeRouter.BASE_PATH + "/{id}", 1)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(Anime.class)
+            .isEqualTo(anime);
+    }
+
+    @Test
+    @DisplayName("POST /fn/animes creates the anime and replays it for the same idempotency key")
+    public void save_CreatesAnimeOnce_WhenIdempotencyKeyIsRepeated() {
+
+        Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+        BDDMockito.when(animeServiceMock.save(animeToBeSaved)).thenReturn(Mono.just(anime));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            testClient.post()
+                .uri(AnimeRouter.BASE_PATH)
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(animeToBeSaved)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Anime.class)
+                .isEqualTo(anime);
+        }
+
+        Mockito.verify(animeServiceMock, Mockito.times(1)).save(animeToBeSaved);
+    }
+
+    @Test
+    @DisplayName("POST /fn/animes rejects an empty name before reaching the service")
+    public void save_ReturnsBadRequest_WhenNameIsEmpty() {
+
+        testClient.post()
+            .uri(AnimeRouter.BASE_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(AnimeCreator.createAnimeToBeSaved().withName(""))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        Mockito.verify(animeServiceMock, Mockito.never()).save(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("POST and PUT without a body are rejected with 400")
+    public void save_ReturnsBadRequest_WhenBodyIsMissing() {
+
+        testClient.post()
+            .uri(AnimeRouter.BASE_PATH)
+            .contentType(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        testClient.put()
+            .uri(AnimeRouter.BASE_PATH + "/{id}", 1)
+            .contentType(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        Mockito.verifyNoInteractions(animeServiceMock);
+    }
+
+    @Test
+    @DisplayName("POST /fn/animes/batch saves every anime")
+    public void saveBatch_CreatesListOfAnime_WhenSuccessful() {
+
+        List<Anime> animes = List.of(anime.withName("Hulk"), anime.withName("Thor"));
+        BDDMockito.when(animeServiceMock.saveAll(animes)).thenReturn(Flux.fromIterable(animes));
+
+        testClient.post()
+            .uri(AnimeRouter.BASE_PATH + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(animes)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody()
+            .jsonPath("$.[0].name").isEqualTo("Hulk")
+            .jsonPath("$.[1].name").isEqualTo("Thor");
+    }
+
+    @Test
+    @DisplayName("PUT /fn/animes/{id} updates the anime")
+    public void update_ReturnsNoContent_WhenSuccessful() {
+
+        BDDMockito.when(animeServiceMock.update(anime)).thenReturn(Mono.empty());
+
+        testClient.put()
+            .uri(AnimeRouter.BASE_PATH + "/{id}", 1)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(anime.withId(null))
+            .exchange()
+            .expectStatus().isNoContent();
+
+        Mockito.verify(animeServiceMock).update(anime);
+    }
+
+    @Test
+    @DisplayName("DELETE /fn/animes/{id} deletes the anime")
+    public void delete_ReturnsNoContent_WhenSuccessful() {
+
+        BDDMockito.when(animeServiceMock.deleteById(1)).thenReturn(Mono.empty());
+
+        testClient.delete()
+            .uri(AnimeRouter.BASE_PATH + "/{id}", 1)
+            .exchange()
+            .expectStatus().isNoContent();
+    }
+}
@@ -1,8 +1,13 @@
 package com.sharshag.springwebfluxresearch.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -10,14 +15,26 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.sharshag.springwebfluxresearch.cache.AnimeCache;
+import com.sharshag.springwebfluxresearch.config.SaveAllProperties;
 import com.sharshag.springwebfluxresearch.domain.Anime;
+import com.sharshag.springwebfluxresearch.domain.AnimeLookup;
+import com.sharshag.springwebfluxresearch.domain.AnimePatch;
 import com.sharshag.springwebfluxresearch.repository.AnimeRepository;
 import com.sharshag.springwebfluxresearch.util.AnimeCreator;
 
@@ -37,6 +54,18 @@ public class AnimeServiceTest {
     @Mock
     private AnimeRepository animeRepositoryMock;
 
+    @Mock
+    private AnimeCache animeCacheMock;
+
+    @Mock
+    private R2dbcEntityTemplate r2dbcEntityTemplateMock;
+
+    @Spy
+    private SaveAllProperties saveAllProperties = new SaveAllProperties();
+
+    @Mock
+    private TransactionalOperator transactionalOperatorMock;
+
     private final Anime anime = AnimeCreator.createValidAnime();
 
     @BeforeAll
@@ -49,6 +78,18 @@ public class AnimeServiceTest {
         BDDMockito.when(animeRepositoryMock.findAll())
             .thenReturn(Flux.just(anime));
 
+        BDDMockito.when(animeCacheMock.get(ArgumentMatchers.anyInt(), ArgumentMatchers.any()))
+            .thenAnswer(invocation -> invocation.<Supplier<Mono<Anime>>>getArgument(1).get());
+        BDDMockito.when(animeCacheMock.evict(ArgumentMatchers.anyCollection()))
+            .thenReturn(Mono.empty());
+        // every id exists, at the version the fixtures carry
+        BDDMockito.when(animeRepositoryMock.findAllById(ArgumentMatchers.<Iterable<Integer>>any()))
+            .thenAnswer(invocation -> Flux.fromIterable(invocation.<Iterable<Integer>>getArgument(0)).map(anime::withId));
+        BDDMockito.when(transactionalOperatorMock.transactional(ArgumentMatchers.<Flux<Anime>>any()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        BDDMockito.when(transactionalOperatorMock.transactional(ArgumentMatchers.<Mono<List<Anime>>>any()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
 
         
     }
@@ -81,6 +122,39 @@ public class AnimeServiceTest {
 
     }
 
+    @Test
+    @DisplayName("a projected list selects only the requested columns and reuses the query per field set")
+    public void findAllFields_SelectsRequestedColumns_WhenFieldsAreKnown() {
+
+        Anime idOnly = new Anime(1, null, null);
+        BDDMockito.when(r2dbcEntityTemplateMock.select(ArgumentMatchers.any(Query.class),
+                ArgumentMatchers.eq(Anime.class)))
+            .thenReturn(Flux.just(idOnly));
+
+        StepVerifier.create(animeService.findAll(List.of("id")).concatWith(animeService.findAll(List.of(" ID"))))
+            .expectNext(idOnly, idOnly)
+            .verifyComplete();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        BDDMockito.verify(r2dbcEntityTemplateMock, Mockito.times(2))
+            .select(queries.capture(), ArgumentMatchers.eq(Anime.class));
+        Assertions.assertSame(queries.getAllValues().get(0), queries.getAllValues().get(1));
+        Assertions.assertEquals(List.of(SqlIdentifier.unquoted("id")), queries.getValue().getColumns());
+        Assertions.assertTrue(queries.getValue().getCriteria().isPresent(), "deleted animes must be filtered");
+    }
+
+    @Test
+    @DisplayName("a projected list of an unknown field returns 400 without querying")
+    public void findAllFields_ReturnsBadRequest_WhenFieldIsUnknown() {
+
+        StepVerifier.create(animeService.findAll(List.of("id", "password")))
+            .expectErrorMatches(e -> e instanceof ResponseStatusException
+                && ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST)
+            .verify();
+
+        Mockito.verifyNoInteractions(r2dbcEntityTemplateMock);
+    }
+
     @Test
     @DisplayName("findById returns a Mono of anime when exists")
     public void findById_ReturnMonoOfAnime_WhenSuccessful() {
@@ -107,6 +181,38 @@ public class AnimeServiceTest {
 
     }
 
+    @Test
+    @DisplayName("findAllByIds returns found animes then the missing ids from a single query")
+    public void findAllByIds_ReturnsFoundThenMissing_WhenSomeIdsDoNotExist() {
+
+        // doReturn, so the default answer from setup is not run with a null argument
+        BDDMockito.doReturn(Flux.just(anime))
+            .when(animeRepositoryMock).findAllById(ArgumentMatchers.<Iterable<Integer>>any());
+
+        StepVerifier.create(animeService.findAllByIds(List.of(1, 2, 1)))
+            .expectSubscription()
+            .expectNext(AnimeLookup.found(anime))
+            .expectNext(AnimeLookup.missing(2))
+            .verifyComplete();
+
+        BDDMockito.verify(animeRepositoryMock).findAllById(ArgumentMatchers.<Iterable<Integer>>any());
+    }
+
+    @Test
+    @DisplayName("findAllByIds returns Flux error when too many ids are requested")
+    public void findAllByIds_ReturnFluxError_WhenTooManyIds() {
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i <= AnimeService.MAX_BULK_IDS; i++) {
+            ids.add(i);
+        }
+
+        StepVerifier.create(animeService.findAllByIds(ids))
+            .expectSubscription()
+            .expectError(ResponseStatusException.class)
+            .verify();
+    }
+
     @Test
     @DisplayName("save returns Mono Anime when successful")
     public void save_ReturnMonoOfAnime_WhenSuccessful() {
@@ -140,6 +246,7 @@ public class AnimeServiceTest {
 
         Anime updatedAnime = AnimeCreator.createValidUpdatedAnime();
 
+        BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(anime));
         BDDMockito.when(animeRepositoryMock.save(updatedAnime)).thenReturn(Mono.just(updatedAnime));
 
         StepVerifier.create(animeService.save(updatedAnime))
@@ -190,6 +297,167 @@ public class AnimeServiceTest {
             .expectError(ResponseStatusException.class)
             .verify();
     }
-    
+
+    @Test
+    @DisplayName("saveAll with concurrency saves every anime on its own and keeps the request order")
+    public void saveAll_SavesConcurrentlyInOrder_WhenConcurrencyAboveOne() {
+
+        saveAllProperties.setConcurrency(4);
+        saveAllProperties.setTransactional(false);
+        Anime slow = anime.withId(1);
+        Anime fast = anime.withId(2);
+        BDDMockito.when(animeRepositoryMock.save(slow))
+            .thenReturn(Mono.just(slow).delayElement(Duration.ofMillis(50)));
+        BDDMockito.when(animeRepositoryMock.save(fast)).thenReturn(Mono.just(fast));
+
+        StepVerifier.create(animeService.saveAll(List.of(slow, fast)))
+            .expectNext(slow, fast)
+            .verifyComplete();
+
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).saveAll(ArgumentMatchers.anyIterable());
+    }
+
+    @Test
+    @DisplayName("saveAll in a transaction inserts one after the other whatever the concurrency")
+    public void saveAll_SavesSequentially_WhenTransactional() {
+
+        saveAllProperties.setConcurrency(4);
+        List<Anime> animes = List.of(anime.withName("Hulk"), anime.withName("Thor"));
+        BDDMockito.when(animeRepositoryMock.saveAll(animes)).thenReturn(Flux.fromIterable(animes));
+
+        StepVerifier.create(animeService.saveAll(animes))
+            .expectNextSequence(animes)
+            .verifyComplete();
+
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).save(ArgumentMatchers.any(Anime.class));
+        BDDMockito.verify(transactionalOperatorMock).transactional(ArgumentMatchers.<Flux<Anime>>any());
+    }
+
+    @Test
+    @DisplayName("save with an id replaces the stored anime at its version instead of inserting")
+    public void save_UpdatesStoredAnime_WhenIdIsPresent() {
+
+        Anime stored = anime.withVersion(3L);
+        Anime renamed = anime.withName("Renamed");
+        BDDMockito.when(animeRepositoryMock.findById(1)).thenReturn(Mono.just(stored));
+        BDDMockito.when(animeRepositoryMock.save(renamed.withVersion(3L))).thenReturn(Mono.just(renamed.withVersion(4L)));
+
+        StepVerifier.create(animeService.save(renamed))
+            .expectNext(renamed.withVersion(4L))
+            .verifyComplete();
+
+        BDDMockito.verify(animeCacheMock).evict(List.of(1));
+    }
+
+    @Test
+    @DisplayName("saveAll returns 404 without saving when an id does not exist")
+    public void saveAll_ReturnsNotFound_WhenIdIsMissing() {
+
+        // doReturn, so the default answer from setup is not run with a null argument
+        BDDMockito.doReturn(Flux.just(anime))
+            .when(animeRepositoryMock).findAllById(ArgumentMatchers.<Iterable<Integer>>any());
+
+        StepVerifier.create(animeService.saveAll(List.of(anime, anime.withId(9))))
+            .expectErrorMatches(e -> ((ResponseStatusException) e).getStatus() == HttpStatus.NOT_FOUND
+                && e.getMessage().contains("9"))
+            .verify();
+
+        BDDMockito.verify(animeRepositoryMock, Mockito.never()).saveAll(ArgumentMatchers.anyIterable());
+    }
+
+    @Test
+    @DisplayName("saveAll runs outside a transaction when transactional mode is off")
+    public void saveAll_SkipsTransaction_WhenNotTransactional() {
+
+        saveAllProperties.setTransactional(false);
+        List<Anime> animes = List.of(anime);
+        BDDMockito.when(animeRepositoryMock.saveAll(animes)).thenReturn(Flux.fromIterable(animes));
+
+        StepVerifier.create(animeService.saveAll(animes))
+            .expectNext(anime)
+            .verifyComplete();
+
+        Mockito.verifyNoInteractions(transactionalOperatorMock);
+    }
+
+    @Test
+    @DisplayName("patch returns the updated anime when the version matches")
+    public void patch_ReturnMonoOfAnime_WhenVersionMatches() {
+
+        Anime patched = anime.withName("Patched").withVersion(4L);
+        BDDMockito.when(animeRepositoryMock.patch(1, 3L, "Patched")).thenReturn(Mono.just(patched));
+
+        StepVerifier.create(animeService.patch(1, AnimePatch.builder().version(3L).name("Patched").build()))
+            .expectNext(patched)
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("patch returns 409 when the version is stale and 404 when the anime is missing")
+    public void patch_ReturnMonoError_WhenStaleOrMissing() {
+
+        BDDMockito.when(animeRepositoryMock.patch(ArgumentMatchers.anyInt(), ArgumentMatchers.anyLong(),
+            ArgumentMatchers.any())).thenReturn(Mono.empty());
+        BDDMockito.when(animeRepositoryMock.existsById(1)).thenReturn(Mono.just(true));
+        BDDMockito.when(animeRepositoryMock.existsById(2)).thenReturn(Mono.just(false));
+        AnimePatch patch = AnimePatch.builder().version(3L).build();
+
+        StepVerifier.create(animeService.patch(1, patch))
+            .expectErrorMatches(e -> ((ResponseStatusException) e).getStatus() == HttpStatus.CONFLICT)
+            .verify();
+
+        StepVerifier.create(animeService.patch(2, patch))
+            .expectErrorMatches(e -> ((ResponseStatusException) e).getStatus() == HttpStatus.NOT_FOUND)
+            .verify();
+    }
+
+    @Test
+    @DisplayName("patchAll returns 409 naming the ids whose version did not match")
+    public void patchAll_ReturnMonoError_WhenAnyVersionIsStale() {
+
+        BDDMockito.when(animeRepositoryMock.patchAll(ArgumentMatchers.any(), ArgumentMatchers.any(),
+            ArgumentMatchers.any())).thenReturn(Flux.just(anime.withId(1).withVersion(1L)));
+        List<AnimePatch> patches = List.of(
+            AnimePatch.builder().id(1).version(0L).name("One").build(),
+            AnimePatch.builder().id(2).version(0L).name("Two").build());
+
+        StepVerifier.create(animeService.patchAll(patches))
+            .expectErrorMatches(e -> ((ResponseStatusException) e).getStatus() == HttpStatus.CONFLICT
+                && e.getMessage().contains("2"))
+            .verify();
+    }
+
+    @Test
+    @DisplayName("patchAll evicts the cache only once the transaction committed")
+    public void patchAll_EvictsAfterCommit_WhenSuccessful() {
+
+        AtomicBoolean committed = new AtomicBoolean();
+        BDDMockito.when(transactionalOperatorMock.transactional(ArgumentMatchers.<Mono<List<Anime>>>any()))
+            .thenAnswer(invocation -> invocation.<Mono<List<Anime>>>getArgument(0)
+                .doOnSuccess(applied -> committed.set(true)));
+        BDDMockito.when(animeCacheMock.evict(ArgumentMatchers.anyCollection()))
+            .thenAnswer(invocation -> Mono.fromRunnable(() -> Assertions.assertTrue(committed.get())));
+        BDDMockito.when(animeRepositoryMock.patchAll(ArgumentMatchers.any(), ArgumentMatchers.any(),
+            ArgumentMatchers.any())).thenReturn(Flux.just(anime.withName("One").withVersion(1L)));
+
+        StepVerifier.create(animeService.patchAll(List.of(AnimePatch.builder().id(1).version(0L).name("One").build())))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        BDDMockito.verify(animeCacheMock).evict(Set.of(1));
+    }
+
+    @Test
+    @DisplayName("patchAll returns 400 when ids repeat")
+    public void patchAll_ReturnMonoError_WhenIdsRepeat() {
+
+        List<AnimePatch> patches = List.of(
+            AnimePatch.builder().id(1).version(0L).build(),
+            AnimePatch.builder().id(1).version(0L).build());
+
+        StepVerifier.create(animeService.patchAll(patches))
+            .expectErrorMatches(e -> ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST)
+            .verify();
+    }
 
 }
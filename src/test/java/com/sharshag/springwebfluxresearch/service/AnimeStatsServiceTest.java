@@ -0,0 +1,47 @@
+package com.sharshag.springwebfluxresearch.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sharshag.springwebfluxresearch.domain.AnimeStats;
+import com.sharshag.springwebfluxresearch.service.AnimeStatsService.StatsRow;
+
+public class AnimeStatsServiceTest {
+
+    @Test
+    @DisplayName("grouping sets rows are split into total, length histogram and prefix buckets")
+    public void assemble_SplitsGroupingSets_WhenRowsAreMixed() {
+
+        List<StatsRow> rows = List.of(
+            new StatsRow(3, null, null, 5, 3, 24),
+            new StatsRow(1, 2, null, 1, null, null),
+            new StatsRow(1, 0, null, 4, null, null),
+            new StatsRow(2, null, "N", 1, null, null),
+            new StatsRow(2, null, "T", 3, null, null),
+            new StatsRow(2, null, "H", 1, null, null));
+
+        AnimeStats stats = AnimeStatsService.assemble(rows, 10, 2);
+
+        Assertions.assertEquals(5, stats.getTotal());
+        Assertions.assertEquals(3, stats.getMinNameLength());
+        Assertions.assertEquals(24, stats.getMaxNameLength());
+        Assertions.assertEquals(List.of(new AnimeStats.Bucket("1-10", 4), new AnimeStats.Bucket("21-30", 1)),
+            stats.getNameLengths());
+        Assertions.assertEquals(List.of(new AnimeStats.Bucket("T", 3), new AnimeStats.Bucket("H", 1)),
+            stats.getPrefixes());
+    }
+
+    @Test
+    @DisplayName("an empty catalog has a zero total and no buckets")
+    public void assemble_ReturnsZeroTotal_WhenNoRows() {
+
+        AnimeStats stats = AnimeStatsService.assemble(List.of(), 10, 50);
+
+        Assertions.assertEquals(0, stats.getTotal());
+        Assertions.assertTrue(stats.getNameLengths().isEmpty());
+        Assertions.assertTrue(stats.getPrefixes().isEmpty());
+    }
+}
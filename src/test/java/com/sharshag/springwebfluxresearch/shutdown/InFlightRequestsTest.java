@@ -0,0 +1,80 @@
+package com.sharshag.springwebfluxresearch.shutdown;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+public class InFlightRequestsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InFlightRequests inFlightRequests;
+
+    @BeforeEach
+    public void setup() {
+        inFlightRequests = new InFlightRequests(Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("draining waits for the requests in flight to finish")
+    public void drain_Completes_WhenInFlightRequestsFinish() {
+
+        Sinks.Empty<Void> response = Sinks.empty();
+        StepVerifier.create(inFlightRequests.filter(exchange(), exchange -> response.asMono()))
+            .then(() -> Assertions.assertEquals(1, inFlightRequests.size()))
+            .then(() -> inFlightRequests.drain(Duration.ofMinutes(1)).subscribe())
+            .then(response::tryEmitEmpty)
+            .verifyComplete();
+
+        StepVerifier.create(inFlightRequests.drain(Duration.ofMinutes(1)))
+            .verifyComplete();
+        Assertions.assertEquals(0.0, meterRegistry.get("http.server.shutdown.aborted").counter().count());
+    }
+
+    @Test
+    @DisplayName("requests still running at the deadline are cancelled with 503")
+    public void drain_CancelsRequests_WhenDeadlineElapses() {
+
+        StepVerifier.create(inFlightRequests.filter(exchange(), exchange -> Mono.never()))
+            .then(() -> inFlightRequests.drain(Duration.ofMillis(50)).subscribe())
+            .expectErrorMatches(e -> e instanceof ResponseStatusException
+                && ((ResponseStatusException) e).getStatus() == HttpStatus.SERVICE_UNAVAILABLE)
+            .verify(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(0, inFlightRequests.size());
+        Assertions.assertEquals(1.0, meterRegistry.get("http.server.shutdown.aborted").counter().count());
+    }
+
+    @Test
+    @DisplayName("requests arriving while draining are turned away with Connection: close")
+    public void filter_Rejects_WhenDraining() {
+
+        StepVerifier.create(inFlightRequests.drain(Duration.ofSeconds(1)))
+            .verifyComplete();
+
+        MockServerWebExchange exchange = exchange();
+        StepVerifier.create(inFlightRequests.filter(exchange, e -> Mono.error(new AssertionError("admitted"))))
+            .verifyComplete();
+
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        Assertions.assertEquals("close", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONNECTION));
+        Assertions.assertEquals("2", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/animes"));
+    }
+}
@@ -0,0 +1,179 @@
+package com.sharshag.springwebfluxresearch.slowquery;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.sharshag.springwebfluxresearch.r2dbc.StatementExecution;
+import com.sharshag.springwebfluxresearch.r2dbc.StatementListener.StatementObservation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+@ExtendWith(MockitoExtension.class)
+public class SlowQueryListenerTest {
+
+    private static final String FIND_BY_ID = "SELECT * FROM anime WHERE id = $1 AND deleted_at IS NULL";
+
+    @Mock
+    private ConnectionFactory connectionFactoryMock;
+
+    @Mock
+    private Connection connectionMock;
+
+    @Mock
+    private Statement statementMock;
+
+    @Mock
+    private Statement readOnlyStatementMock;
+
+    @Mock
+    private Result resultMock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("a slow statement is retained with its parameter shapes and a plan captured with the same bindings "
+        + "in a read-only transaction that is rolled back")
+    @SuppressWarnings("unchecked")
+    public void afterExecute_RetainsStatementAndCapturesPlan_WhenSlow() {
+        BDDMockito.doReturn(Mono.just(connectionMock)).when(connectionFactoryMock).create();
+        BDDMockito.doReturn(Mono.empty()).when(connectionMock).beginTransaction();
+        BDDMockito.when(connectionMock.createStatement("SET TRANSACTION READ ONLY")).thenReturn(readOnlyStatementMock);
+        BDDMockito.doReturn(Flux.just(resultMock)).when(readOnlyStatementMock).execute();
+        BDDMockito.doReturn(Mono.just(0)).when(resultMock).getRowsUpdated();
+        BDDMockito.doReturn(Mono.empty()).when(connectionMock).rollbackTransaction();
+        BDDMockito.when(connectionMock.createStatement("EXPLAIN (ANALYZE, BUFFERS) " + FIND_BY_ID))
+            .thenReturn(statementMock);
+        BDDMockito.doReturn(Flux.just(resultMock)).when(statementMock).execute();
+        BDDMockito.doReturn(Flux.just("Index Scan using anime_pkey on anime", "Execution Time: 0.1 ms"))
+            .when(resultMock).map(ArgumentMatchers.any(BiFunction.class));
+        BDDMockito.doReturn(Mono.empty()).when(connectionMock).close();
+
+        SlowQueryListener listener = listener(Duration.ZERO, 1.0);
+        listener.beforeExecute(new StatementExecution(FIND_BY_ID, List.of(Map.of(0, 42))), Context.empty())
+            .afterExecute(null);
+
+        List<SlowQuery> slowQueries = listener.getSlowQueries();
+        Assertions.assertEquals(1, slowQueries.size());
+        SlowQuery slowQuery = slowQueries.get(0);
+        Assertions.assertEquals(FIND_BY_ID, slowQuery.getSql());
+        Assertions.assertEquals("[$1=Integer]", slowQuery.getParameters());
+        Assertions.assertEquals("Index Scan using anime_pkey on anime\nExecution Time: 0.1 ms", slowQuery.getPlan());
+        BDDMockito.verify(statementMock).bind(0, 42);
+        BDDMockito.verify(connectionMock).rollbackTransaction();
+        Assertions.assertEquals(1.0, meterRegistry.get("r2dbc.statements.slow").counter().count());
+    }
+
+    @Test
+    @DisplayName("fast statements are timed but not retained, statements on other tables are not observed")
+    public void beforeExecute_IgnoresStatement_WhenFastOrOutOfScope() {
+        SlowQueryListener listener = listener(Duration.ofMinutes(1), 1.0);
+
+        listener.beforeExecute(new StatementExecution(FIND_BY_ID, List.of()), Context.empty()).afterExecute(null);
+        StatementObservation outbox = listener.beforeExecute(
+            new StatementExecution("DELETE FROM anime_outbox WHERE id IN ($1)", List.of()), Context.empty());
+
+        Assertions.assertSame(StatementObservation.NOOP, outbox);
+        Assertions.assertTrue(listener.getSlowQueries().isEmpty());
+        Assertions.assertEquals(1, meterRegistry.get("r2dbc.statements").timer().count());
+        Mockito.verifyNoInteractions(connectionFactoryMock);
+    }
+
+    @Test
+    @DisplayName("a statement whose first row was fast is not slow however long the consumer takes to read the rest")
+    public void afterExecute_IgnoresStreaming_WhenFirstRowWasFast() throws InterruptedException {
+        SlowQueryListener listener = listener(Duration.ofMillis(50), 1.0);
+
+        StatementObservation observation = listener.beforeExecute(
+            new StatementExecution("SELECT * FROM anime WHERE deleted_at IS NULL", List.of()), Context.empty());
+        observation.firstRow();
+        Thread.sleep(100);
+        observation.afterExecute(null);
+
+        Assertions.assertTrue(listener.getSlowQueries().isEmpty());
+        Assertions.assertEquals(1, meterRegistry.get("r2dbc.statements").timer().count());
+        Mockito.verifyNoInteractions(connectionFactoryMock);
+    }
+
+    @Test
+    @DisplayName("a plan due while the capture budget is used up is skipped")
+    public void afterExecute_SkipsPlan_WhenCapturesAreBusy() {
+        BDDMockito.doReturn(Mono.never()).when(connectionFactoryMock).create();
+
+        SlowQueryListener listener = listener(Duration.ZERO, 1.0);
+        listener.beforeExecute(new StatementExecution(FIND_BY_ID, List.of()), Context.empty()).afterExecute(null);
+        listener.beforeExecute(new StatementExecution("SELECT * FROM devdojo_user", List.of()), Context.empty())
+            .afterExecute(null);
+
+        Assertions.assertEquals(2, listener.getSlowQueries().size());
+        BDDMockito.verify(connectionFactoryMock, Mockito.times(1)).create();
+    }
+
+    @Test
+    @DisplayName("parameter shapes show types and sizes but never the bound values")
+    public void shape_DescribesTypesAndSizes() {
+        Map<Object, Object> first = new LinkedHashMap<>();
+        first.put(0, "secret name");
+        first.put(1, new Integer[] { 1, 2, 3 });
+        first.put(2, String.class);
+
+        String shape = SlowQueryListener.shape(List.of(first, Map.of()));
+
+        Assertions.assertEquals("[$1=String(11), $2=Integer[3], $3=null String] x2", shape);
+        Assertions.assertFalse(shape.contains("secret"));
+    }
+
+    @Test
+    @DisplayName("only plain SELECTs are explained with ANALYZE, statements that write or lock are not run")
+    public void explainSql_AnalyzesOnlyReadOnlyStatements() {
+        Assertions.assertEquals("EXPLAIN (ANALYZE, BUFFERS) " + FIND_BY_ID, SlowQueryListener.explainSql(FIND_BY_ID));
+        Assertions.assertEquals("EXPLAIN UPDATE anime SET deleted_at = now() WHERE id = $1",
+            SlowQueryListener.explainSql("UPDATE anime SET deleted_at = now() WHERE id = $1"));
+        Assertions.assertTrue(SlowQueryListener.explainSql("SELECT id FROM anime FOR UPDATE SKIP LOCKED")
+            .startsWith("EXPLAIN SELECT"));
+    }
+
+    @Test
+    @DisplayName("a full table only admits a statement slower than its fastest entry")
+    public void record_EvictsFastestEntry_WhenFull() {
+        SlowQueryTable table = new SlowQueryTable(2, Duration.ofMinutes(5));
+        Instant now = Instant.now();
+
+        table.record("a", 300_000_000L, "[]", now, false);
+        table.record("b", 200_000_000L, "[]", now, false);
+        table.record("c", 100_000_000L, "[]", now, false);
+        table.record("d", 400_000_000L, "[]", now, false);
+
+        List<SlowQuery> slowQueries = table.snapshot();
+        Assertions.assertEquals(List.of("d", "a"), List.of(slowQueries.get(0).getSql(), slowQueries.get(1).getSql()));
+        Assertions.assertTrue(table.record("a", 300_000_000L, "[]", now, true));
+        Assertions.assertFalse(table.record("a", 300_000_000L, "[]", now.plusSeconds(60), true));
+        Assertions.assertEquals(3, table.snapshot().get(1).getCount());
+    }
+
+    private SlowQueryListener listener(Duration threshold, double explainSampleRatio) {
+        return new SlowQueryListener(List.of("anime", "devdojo_user"), threshold, 10, explainSampleRatio,
+            Duration.ofMinutes(5), 1, Duration.ofSeconds(5), () -> connectionFactoryMock, meterRegistry);
+    }
+}
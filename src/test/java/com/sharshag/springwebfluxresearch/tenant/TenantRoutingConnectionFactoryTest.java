@@ -0,0 +1,78 @@
+package com.sharshag.springwebfluxresearch.tenant;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class TenantRoutingConnectionFactoryTest {
+
+    private ConnectionFactory defaultMock;
+    private ConnectionFactory acmeMock;
+    private TenantRoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setup() {
+        defaultMock = connectionFactoryMock();
+        acmeMock = connectionFactoryMock();
+        routingConnectionFactory = new TenantRoutingConnectionFactory(
+            Map.of(TenantContext.DEFAULT_TENANT, defaultMock, "acme", acmeMock));
+    }
+
+    @Test
+    @DisplayName("connections come from the pool of the tenant in the context")
+    public void create_UsesTenantPool_WhenTenantInContext() {
+
+        StepVerifier.create(routingConnectionFactory.create().contextWrite(TenantContext.withTenant("acme")))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Mockito.verify(acmeMock).create();
+        Mockito.verifyNoInteractions(defaultMock);
+    }
+
+    @Test
+    @DisplayName("pipelines without a tenant use the default tenant's pool")
+    public void create_UsesDefaultPool_WhenNoTenant() {
+
+        StepVerifier.create(routingConnectionFactory.create())
+            .expectNextCount(1)
+            .verifyComplete();
+
+        Mockito.verify(defaultMock).create();
+        Mockito.verifyNoInteractions(acmeMock);
+    }
+
+    @Test
+    @DisplayName("a tenant without a pool fails instead of reading the default tenant's catalog")
+    public void create_Fails_WhenTenantIsUnknown() {
+
+        StepVerifier.create(routingConnectionFactory.create().contextWrite(TenantContext.withTenant("globex")))
+            .expectError(IllegalStateException.class)
+            .verify();
+
+        Mockito.verifyNoInteractions(defaultMock, acmeMock);
+    }
+
+    private ConnectionFactory connectionFactoryMock() {
+        ConnectionFactory connectionFactory = Mockito.mock(ConnectionFactory.class);
+        Connection connection = Mockito.mock(Connection.class);
+        BDDMockito.doReturn(Mono.just(connection)).when(connectionFactory).create();
+        return connectionFactory;
+    }
+}
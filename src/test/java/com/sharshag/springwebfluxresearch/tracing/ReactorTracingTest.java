@@ -0,0 +1,135 @@
+package com.sharshag.springwebfluxresearch.tracing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.sharshag.springwebfluxresearch.r2dbc.ObservedConnectionFactory;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import reactor.blockhound.BlockHound;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class ReactorTracingTest {
+
+    private RecordingSpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeAll
+    public static void blockHoundSetup() {
+        BlockHound.install();
+    }
+
+    @BeforeEach
+    public void setup() {
+        exporter = new RecordingSpanExporter(100);
+        tracerProvider = tracerProvider(Sampler.alwaysOn());
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    @DisplayName("spans nest through the Reactor context down to the SQL statement")
+    public void trace_NestsSqlSpanUnderServiceSpan_WhenStatementRunsInsideService() {
+        ConnectionFactory connectionFactory = new ObservedConnectionFactory(connectionFactoryMock(Flux.just("row")),
+            List.of(new TracingStatementListener(tracer)));
+
+        Flux<Object> rows = Mono.from(connectionFactory.create())
+            .flatMapMany(connection -> Flux.from(connection.createStatement("SELECT * FROM anime").execute()))
+            .flatMap(result -> result.map((row, metadata) -> row));
+        Flux<Object> service = ReactorTracing.trace(tracer, "AnimeService.findAll", SpanKind.INTERNAL, rows);
+
+        StepVerifier.create(ReactorTracing.trace(tracer, "HTTP GET", SpanKind.SERVER, service))
+            .expectNext("row")
+            .verifyComplete();
+
+        Map<String, SpanData> spans = spansByName();
+        Assertions.assertEquals(3, spans.size());
+        Assertions.assertEquals(spans.get("HTTP GET").getSpanId(), spans.get("AnimeService.findAll").getParentSpanId());
+        Assertions.assertEquals(spans.get("AnimeService.findAll").getSpanId(), spans.get("SELECT").getParentSpanId());
+        Assertions.assertEquals(spans.get("HTTP GET").getTraceId(), spans.get("SELECT").getTraceId());
+        Assertions.assertEquals(SpanKind.CLIENT, spans.get("SELECT").getKind());
+    }
+
+    @Test
+    @DisplayName("a failing statement marks its span as an error")
+    public void trace_RecordsError_WhenRowsFail() {
+        ConnectionFactory connectionFactory = new ObservedConnectionFactory(
+            connectionFactoryMock(Flux.error(new IllegalStateException("broken pipe"))),
+            List.of(new TracingStatementListener(tracer)));
+
+        StepVerifier.create(Mono.from(connectionFactory.create())
+                .flatMapMany(connection -> Flux.from(connection.createStatement("update anime set name = $1").execute()))
+                .flatMap(result -> result.map((row, metadata) -> row)))
+            .verifyError(IllegalStateException.class);
+
+        SpanData span = spansByName().get("UPDATE");
+        Assertions.assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("nothing is exported when the sampler drops the root span")
+    public void trace_ExportsNothing_WhenNotSampled() {
+        tracerProvider.close();
+        tracerProvider = tracerProvider(Sampler.parentBased(Sampler.traceIdRatioBased(0)));
+        tracer = tracerProvider.get("test");
+
+        Mono<String> service = ReactorTracing.trace(tracer, "AnimeService.findById", SpanKind.INTERNAL, Mono.just("anime"));
+
+        StepVerifier.create(ReactorTracing.trace(tracer, "HTTP GET", SpanKind.SERVER, service))
+            .expectNext("anime")
+            .verifyComplete();
+
+        Assertions.assertTrue(exporter.getFinishedSpans().isEmpty());
+    }
+
+    private SdkTracerProvider tracerProvider(Sampler sampler) {
+        return SdkTracerProvider.builder()
+            .setSampler(sampler)
+            .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+            .build();
+    }
+
+    private Map<String, SpanData> spansByName() {
+        return exporter.getFinishedSpans().stream()
+            .collect(Collectors.toMap(SpanData::getName, span -> span));
+    }
+
+    private ConnectionFactory connectionFactoryMock(Flux<Object> rows) {
+        ConnectionFactory connectionFactory = Mockito.mock(ConnectionFactory.class);
+        Connection connection = Mockito.mock(Connection.class);
+        Statement statement = Mockito.mock(Statement.class);
+        Result result = Mockito.mock(Result.class);
+        Mockito.doReturn(Mono.just(connection)).when(connectionFactory).create();
+        Mockito.doReturn(statement).when(connection).createStatement(ArgumentMatchers.anyString());
+        Mockito.doReturn(Flux.just(result)).when(statement).execute();
+        Mockito.doReturn(rows).when(result).map(ArgumentMatchers.any());
+        return connectionFactory;
+    }
+}